@@ -0,0 +1,156 @@
+package carnage.cAbilityStones.benchmarks;
+
+import carnage.cAbilityStones.managers.CooldownManager;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.storage.LoopbackTransport;
+import carnage.cAbilityStones.storage.MemoryCooldownStore;
+import carnage.cAbilityStones.storage.SyncedCooldownStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Measures setting, checking, reading and acquiring cooldowns across many online players.
+ * <p>
+ * Half of the players have every cooldown running, so checks see both outcomes. The synced store
+ * is connected to a second one over a loopback transport and flushed once per pass over the
+ * players, so its results include encoding the batches and applying them on the peer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CooldownManagerBenchmark {
+    private static final StoneType[] TYPES = StoneType.values();
+
+    @Param({"100", "1000", "10000"})
+    private int players;
+
+    @Param({"memory", "synced"})
+    private String store;
+
+    private CooldownManager cooldownManager;
+    private SyncedCooldownStore synced;
+    private SyncedCooldownStore peer;
+    private UUID[] ids;
+    private int cursor;
+
+    /**
+     * Creates the players and starts the cooldowns of every other one.
+     */
+    @Setup
+    public void setUp() {
+        if (store.equals("synced")) {
+            LoopbackTransport.Network network = new LoopbackTransport.Network();
+            Logger logger = Logger.getLogger(getClass().getName());
+            synced = new SyncedCooldownStore(new MemoryCooldownStore(), new LoopbackTransport(network), logger);
+            peer = new SyncedCooldownStore(new MemoryCooldownStore(), new LoopbackTransport(network), logger);
+            cooldownManager = new CooldownManager(synced);
+        } else {
+            cooldownManager = new CooldownManager();
+        }
+        ids = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = new UUID(0x5EED, i);
+            if ((i & 1) == 0) {
+                for (StoneType type : TYPES) {
+                    cooldownManager.setCooldown(ids[i], type, TimeUnit.HOURS.toMillis(1));
+                }
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Closes the synced stores.
+     */
+    @TearDown
+    public void tearDown() {
+        cooldownManager.shutdown();
+        if (peer != null) {
+            peer.close();
+        }
+    }
+
+    /**
+     * Starts a cooldown for the next player.
+     */
+    @Benchmark
+    public void setCooldown() {
+        int i = next();
+        cooldownManager.setCooldown(ids[i], TYPES[i % TYPES.length], TimeUnit.HOURS.toMillis(1));
+    }
+
+    /**
+     * Checks whether the next player is on cooldown.
+     *
+     * @return the check result
+     */
+    @Benchmark
+    public boolean hasCooldown() {
+        int i = next();
+        return cooldownManager.hasCooldown(ids[i], TYPES[i % TYPES.length]);
+    }
+
+    /**
+     * Reads the remaining cooldown of the next player with a sampled clock, as the interact listener does.
+     *
+     * @return the remaining time
+     */
+    @Benchmark
+    public long getRemainingCooldown() {
+        int i = next();
+        return cooldownManager.getRemainingCooldown(ids[i], TYPES[i % TYPES.length], cooldownManager.now());
+    }
+
+    /**
+     * Checks and starts the cooldown of the next player in one step, as the interact listener does.
+     *
+     * @return 0 if granted, otherwise the remaining time
+     */
+    @Benchmark
+    public long tryAcquire() {
+        int i = next();
+        return cooldownManager.tryAcquire(ids[i], TYPES[i % TYPES.length], TimeUnit.HOURS.toMillis(1), cooldownManager.now());
+    }
+
+    /**
+     * Advances to the next player, flushing the synced store after each pass.
+     *
+     * @return the player index
+     */
+    private int next() {
+        int i = cursor;
+        if (i + 1 == players) {
+            cursor = 0;
+            flush();
+        } else {
+            cursor = i + 1;
+        }
+        return i;
+    }
+
+    /**
+     * Sends the changes queued by the synced store, as its flush task does.
+     */
+    private void flush() {
+        if (synced != null) {
+            synced.flush();
+        }
+    }
+}
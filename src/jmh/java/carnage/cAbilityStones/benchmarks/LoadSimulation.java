@@ -0,0 +1,273 @@
+package carnage.cAbilityStones.benchmarks;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.models.StoneType;
+import org.bukkit.Location;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Zombie;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * Runs the plugin on a mocked server under simulated player load and gates on per-tick cost.
+ * <p>
+ * Players stand on a grid among zombies, each holding one stone type, and click in bursts the way
+ * a held right button does, sometimes with the duplicate events a real client produces. Every
+ * tick the clicks are dispatched to the listeners and the scheduler is advanced once, and the
+ * time both take is recorded as the plugin's cost for that tick.
+ * <p>
+ * The mean and 99th percentile are compared with a stored baseline and the process exits with
+ * status 1 if either exceeds it by more than the tolerance. With {@code -Dload.update=true} the
+ * run's numbers are written as the new baseline instead; without that flag a missing baseline
+ * fails the run, so a lost or unrecorded baseline never passes the gate silently.
+ * <p>
+ * Usage: {@code LoadSimulation <baseline file> <result file>}, tuned with the {@code load.players},
+ * {@code load.warmup}, {@code load.ticks}, {@code load.tolerance} and {@code load.update}
+ * system properties.
+ */
+public final class LoadSimulation {
+    private static final double SPACING = 6;
+    private static final int ZOMBIES_PER_PLAYER = 2;
+    private static final int CLICK_PERIOD = 4;
+    private static final int BURST_TICKS = 20;
+    private static final int MIN_IDLE_TICKS = 40;
+    private static final int MAX_IDLE_TICKS = 200;
+    private static final double DUPLICATE_CHANCE = 0.3;
+
+    private final ServerMock server;
+    private final CAbilityStones plugin;
+    private final PlayerMock[] players;
+    private final ItemStack[] stones;
+    private final int[] nextBurst;
+    private final SplittableRandom random;
+    private int errors;
+
+    private LoadSimulation(int playerCount) {
+        this.random = new SplittableRandom(42);
+        this.server = MockBukkit.mock();
+        WorldMock world = server.addSimpleWorld("world");
+        int side = (int) Math.ceil(Math.sqrt(playerCount));
+        for (int i = 0; i < playerCount * ZOMBIES_PER_PLAYER; i++) {
+            world.spawn(new Location(world, random.nextDouble(side * SPACING), 64, random.nextDouble(side * SPACING)), Zombie.class);
+        }
+
+        this.plugin = MockBukkit.load(CAbilityStones.class);
+        this.players = new PlayerMock[playerCount];
+        this.stones = new ItemStack[playerCount];
+        this.nextBurst = new int[playerCount];
+        StoneType[] types = StoneType.values();
+        for (int i = 0; i < playerCount; i++) {
+            PlayerMock player = server.addPlayer();
+            player.teleport(new Location(world, (i % side) * SPACING, 64, (double) (i / side) * SPACING));
+            stones[i] = plugin.getStoneManager().createStone(types[i % types.length]);
+            player.getInventory().setItemInMainHand(stones[i]);
+            players[i] = player;
+            nextBurst[i] = random.nextInt(MAX_IDLE_TICKS);
+        }
+    }
+
+    /**
+     * Runs the simulation and checks the result against the baseline.
+     *
+     * @param args the baseline file and the result file
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadSimulation <baseline file> <result file>");
+            System.exit(2);
+        }
+
+        Path baselineFile = Path.of(args[0]);
+        Path resultFile = Path.of(args[1]);
+        boolean update = Boolean.getBoolean("load.update");
+        if (!update && !Files.exists(baselineFile)) {
+            System.err.println("No load baseline at " + baselineFile + "; record one with -Dload.update=true and commit it");
+            System.exit(1);
+        }
+
+        int playerCount = Integer.getInteger("load.players", 300);
+        int warmup = Integer.getInteger("load.warmup", 400);
+        int ticks = Integer.getInteger("load.ticks", 2000);
+        double tolerance = Double.parseDouble(System.getProperty("load.tolerance", "0.25"));
+
+        Properties result;
+        try {
+            result = new LoadSimulation(playerCount).run(warmup, ticks);
+        } finally {
+            MockBukkit.unmock();
+        }
+        result.setProperty("players", Integer.toString(playerCount));
+        result.setProperty("ticks", Integer.toString(ticks));
+        store(result, resultFile, "Load simulation result");
+        result.forEach((key, value) -> System.out.println(key + " = " + value));
+
+        if (update) {
+            Properties baseline = new Properties();
+            baseline.setProperty("mean_micros", result.getProperty("mean_micros"));
+            baseline.setProperty("p99_micros", result.getProperty("p99_micros"));
+            store(baseline, baselineFile, "Load simulation baseline, " + playerCount + " players");
+            System.out.println("Wrote baseline " + baselineFile);
+            return;
+        }
+
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselineFile)) {
+            baseline.load(reader);
+        }
+        boolean passed = check("mean", result, baseline, "mean_micros", tolerance)
+                & check("p99", result, baseline, "p99_micros", tolerance);
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Drives the server for the warm-up and the measured ticks.
+     *
+     * @param warmup the ticks to run before measuring
+     * @param ticks the ticks to measure
+     * @return the measured statistics
+     */
+    private Properties run(int warmup, int ticks) {
+        for (int tick = 0; tick < warmup; tick++) {
+            tick(tick);
+        }
+
+        long[] costs = new long[ticks];
+        int maxTasks = 0;
+        int maxEffects = 0;
+        long entitiesBefore = plugin.getMetricsManager().getEntitiesSpawned();
+        for (int i = 0; i < ticks; i++) {
+            costs[i] = tick(warmup + i);
+            maxTasks = Math.max(maxTasks, server.getScheduler().getPendingTasks().size());
+            maxEffects = Math.max(maxEffects, plugin.getEffectEngine().getActiveCount());
+        }
+
+        long total = 0;
+        for (long cost : costs) {
+            total += cost;
+        }
+        Arrays.sort(costs);
+
+        Properties result = new Properties();
+        result.setProperty("mean_micros", format(total / 1000.0 / ticks));
+        result.setProperty("p99_micros", format(costs[Math.min(ticks - 1, (int) Math.ceil(ticks * 0.99) - 1)] / 1000.0));
+        result.setProperty("max_micros", format(costs[ticks - 1] / 1000.0));
+        result.setProperty("max_scheduled_tasks", Integer.toString(maxTasks));
+        result.setProperty("max_active_effects", Integer.toString(maxEffects));
+        result.setProperty("entities_spawned", Long.toString(plugin.getMetricsManager().getEntitiesSpawned() - entitiesBefore));
+        result.setProperty("errors", Integer.toString(errors));
+        return result;
+    }
+
+    /**
+     * Dispatches this tick's clicks and advances the scheduler once.
+     *
+     * @param tick the tick number
+     * @return the time spent in nanoseconds
+     */
+    private long tick(int tick) {
+        long start = System.nanoTime();
+        for (int i = 0; i < players.length; i++) {
+            PlayerMock player = players[i];
+            player.setTicksLived(tick + 1);
+            if (tick >= nextBurst[i] + BURST_TICKS) {
+                nextBurst[i] = tick + MIN_IDLE_TICKS + random.nextInt(MAX_IDLE_TICKS - MIN_IDLE_TICKS);
+            }
+            if (tick < nextBurst[i] || (tick - nextBurst[i]) % CLICK_PERIOD != 0) {
+                continue;
+            }
+
+            click(player, stones[i], EquipmentSlot.HAND);
+            if (random.nextDouble() < DUPLICATE_CHANCE) {
+                click(player, null, EquipmentSlot.OFF_HAND);
+            }
+        }
+        server.getScheduler().performOneTick();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Fires a right-click in the air, counting failures instead of aborting the run.
+     *
+     * @param player the clicking player
+     * @param item the item in the clicking hand
+     * @param hand the clicking hand
+     */
+    private void click(PlayerMock player, ItemStack item, EquipmentSlot hand) {
+        try {
+            server.getPluginManager().callEvent(new PlayerInteractEvent(player, Action.RIGHT_CLICK_AIR, item, null, BlockFace.SELF, hand));
+        } catch (RuntimeException e) {
+            errors++;
+        }
+    }
+
+    /**
+     * Compares one statistic with its baseline and reports the outcome.
+     *
+     * @param label the statistic name for the report
+     * @param result the measured statistics
+     * @param baseline the baseline statistics
+     * @param key the statistic key
+     * @param tolerance the allowed relative increase
+     * @return true if the statistic is within the tolerance
+     */
+    private static boolean check(String label, Properties result, Properties baseline, String key, double tolerance) {
+        double measured = Double.parseDouble(result.getProperty(key));
+        String stored = baseline.getProperty(key);
+        if (stored == null) {
+            System.out.println("No baseline " + label + ", skipping its check");
+            return true;
+        }
+
+        double limit = Double.parseDouble(stored) * (1 + tolerance);
+        boolean passed = measured <= limit;
+        System.out.printf("%s per tick: %.1fus, limit %.1fus: %s%n", label, measured, limit, passed ? "ok" : "REGRESSED");
+        return passed;
+    }
+
+    /**
+     * Writes statistics to a file, creating its directory.
+     *
+     * @param properties the statistics
+     * @param file the file to write
+     * @param comment the header comment
+     * @throws IOException if the file cannot be written
+     */
+    private static void store(Properties properties, Path file, String comment) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, comment);
+        }
+    }
+
+    /**
+     * Formats a statistic with one decimal.
+     *
+     * @param value the value
+     * @return the formatted value
+     */
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
@@ -0,0 +1,310 @@
+package carnage.cAbilityStones.benchmarks;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.abilities.Ability;
+import carnage.cAbilityStones.abilities.ChainLightningAbility;
+import carnage.cAbilityStones.abilities.DashForwardAbility;
+import carnage.cAbilityStones.abilities.FireBurstAbility;
+import carnage.cAbilityStones.abilities.HealWaveAbility;
+import carnage.cAbilityStones.abilities.ProgramAbility;
+import carnage.cAbilityStones.abilities.ShadowCurseAbility;
+import carnage.cAbilityStones.abilities.StoneShieldAbility;
+import carnage.cAbilityStones.effects.EffectEngine;
+import carnage.cAbilityStones.models.StoneType;
+import org.bukkit.Location;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.entity.Zombie;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares abilities written in Java with the same gameplay written as a configured program.
+ * <p>
+ * The programs are the ones the README lists for every stone, so activations select the same
+ * zombies and apply the same effects. Each benchmark measures a whole cast: the activation, then
+ * server ticks until every effect it started has finished, so fireball flights, projectile
+ * flights and lightning hops are included and waiting abilities compare fairly. Zombies are
+ * healed before every cast so damaging abilities always find the same targets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramBenchmark {
+    private static final int ZOMBIES = 20;
+    private static final int MAX_TICKS = 200;
+
+    private ServerMock server;
+    private CAbilityStones plugin;
+    private EffectEngine engine;
+    private PlayerMock player;
+    private List<Zombie> zombies;
+    private Ability fire;
+    private Ability water;
+    private Ability earth;
+    private Ability air;
+    private Ability lightning;
+    private Ability darkness;
+    private Ability fireProgram;
+    private Ability waterProgram;
+    private Ability earthProgram;
+    private Ability airProgram;
+    private Ability lightningProgram;
+    private Ability darknessProgram;
+
+    /**
+     * Starts the mocked server with a player among zombies and compiles the programs.
+     */
+    @Setup
+    public void setUp() {
+        server = MockBukkit.mock();
+        WorldMock world = server.addSimpleWorld("world");
+        zombies = new ArrayList<>(ZOMBIES);
+        for (int i = 0; i < ZOMBIES; i++) {
+            double angle = Math.PI * 2 * i / ZOMBIES;
+            zombies.add(world.spawn(new Location(world, Math.cos(angle) * 2.5, 64, Math.sin(angle) * 2.5), Zombie.class));
+        }
+
+        plugin = MockBukkit.load(CAbilityStones.class);
+        engine = plugin.getEffectEngine();
+        player = server.addPlayer();
+        player.teleport(new Location(world, 0, 64, 0));
+
+        plugin.getConfig().set("stones.fire.program", List.of(
+                Map.of("message", "&cFire Burst activated!"),
+                Map.of("projectile", Map.of("speed", 0.5, "max_ticks", 100, "trail", "flame", "trail_count", 10)),
+                Map.of("explode", 3.0)));
+        plugin.getConfig().set("stones.water.program", List.of(
+                Map.of("self", true),
+                Map.of("heal", 4.0),
+                Map.of("potion", Map.of("type", "regeneration", "duration", 100, "amplifier", 1)),
+                Map.of("select", Map.of("range", 5.0, "kinds", "players")),
+                Map.of("heal", 4.0),
+                Map.of("potion", Map.of("type", "regeneration", "duration", 100, "amplifier", 1)),
+                Map.of("particle", Map.of("type", "dust", "color", "#00BFFF", "count", 40, "spread", 2.0, "at", "caster")),
+                Map.of("message", "&bHeal Wave activated!")));
+        plugin.getConfig().set("stones.earth.program", List.of(
+                Map.of("self", true),
+                Map.of("potion", Map.of("type", "resistance", "duration", 100, "amplifier", 2)),
+                Map.of("select", Map.of("range", 3.0)),
+                Map.of("knockback", Map.of("power", 0.8, "lift", 0.3)),
+                Map.of("message", "&aStone Shield activated!")));
+        plugin.getConfig().set("stones.air.program", List.of(
+                Map.of("launch", Map.of("power", 2.0, "lift", 0.3)),
+                Map.of("self", true),
+                Map.of("potion", Map.of("type", "speed", "duration", 40, "amplifier", 1)),
+                Map.of("particle", Map.of("type", "sweep_attack", "count", 3, "spread", 0.5, "at", "caster")),
+                Map.of("message", "&fDash Forward activated!")));
+        plugin.getConfig().set("stones.lightning.program", List.of(
+                Map.of("select", Map.of("range", 6.0, "limit", 1)),
+                Map.of("require_targets", "&cNo enemies nearby!"),
+                Map.of("chain", Map.of("hops", 2, "range", 5.0)),
+                Map.of("lightning", Map.of("at", "targets")),
+                Map.of("damage", Map.of("amount", 6.0, "falloff", 0.8)),
+                Map.of("message", "&eChain Lightning activated!")));
+        plugin.getConfig().set("stones.darkness.program", List.of(
+                Map.of("select", Map.of("range", 4.0)),
+                Map.of("require_targets", "&cNo enemies nearby!"),
+                Map.of("potion", Map.of("type", "blindness", "duration", 60, "amplifier", 1)),
+                Map.of("potion", Map.of("type", "slowness", "duration", 60, "amplifier", 1)),
+                Map.of("particle", Map.of("type", "dust", "color", "#4B0082", "count", 12, "spread", 0.4, "at", "targets")),
+                Map.of("message", "&5Shadow Curse activated!")));
+        plugin.getSettingsManager().reload();
+
+        fire = new FireBurstAbility(plugin);
+        water = new HealWaveAbility(plugin);
+        earth = new StoneShieldAbility(plugin);
+        air = new DashForwardAbility(plugin);
+        lightning = new ChainLightningAbility(plugin);
+        darkness = new ShadowCurseAbility(plugin);
+        fireProgram = new ProgramAbility(plugin, StoneType.FIRE);
+        waterProgram = new ProgramAbility(plugin, StoneType.WATER);
+        earthProgram = new ProgramAbility(plugin, StoneType.EARTH);
+        airProgram = new ProgramAbility(plugin, StoneType.AIR);
+        lightningProgram = new ProgramAbility(plugin, StoneType.LIGHTNING);
+        darknessProgram = new ProgramAbility(plugin, StoneType.DARKNESS);
+    }
+
+    /**
+     * Restores the zombies' health, and the player's position, before every cast.
+     */
+    @Setup(Level.Invocation)
+    public void restore() {
+        for (Zombie zombie : zombies) {
+            zombie.setHealth(zombie.getAttribute(Attribute.MAX_HEALTH).getValue());
+        }
+        player.teleport(new Location(player.getWorld(), 0, 64, 0));
+    }
+
+    /**
+     * Drops the effects started during the last iteration so they do not pile up.
+     */
+    @TearDown(Level.Iteration)
+    public void clearEffects() {
+        engine.shutdown();
+        engine.start();
+    }
+
+    /**
+     * Stops the mocked server.
+     */
+    @TearDown
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Activates an ability and ticks the server until every effect it started has finished.
+     *
+     * @param ability the ability to cast
+     * @return whether it activated
+     */
+    private boolean cast(Ability ability) {
+        boolean activated = ability.activate(player);
+        for (int tick = 0; tick < MAX_TICKS && engine.getActiveCount() > 0; tick++) {
+            server.getScheduler().performOneTick();
+        }
+        return activated;
+    }
+
+    /**
+     * Casts the hand-written Fire Burst.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean fireBurstJava() {
+        return cast(fire);
+    }
+
+    /**
+     * Casts Fire Burst as a program.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean fireBurstProgram() {
+        return cast(fireProgram);
+    }
+
+    /**
+     * Casts the hand-written Heal Wave.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean healWaveJava() {
+        return cast(water);
+    }
+
+    /**
+     * Casts Heal Wave as a program.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean healWaveProgram() {
+        return cast(waterProgram);
+    }
+
+    /**
+     * Casts the hand-written Stone Shield.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean stoneShieldJava() {
+        return cast(earth);
+    }
+
+    /**
+     * Casts Stone Shield as a program.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean stoneShieldProgram() {
+        return cast(earthProgram);
+    }
+
+    /**
+     * Casts the hand-written Dash Forward.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean dashForwardJava() {
+        return cast(air);
+    }
+
+    /**
+     * Casts Dash Forward as a program.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean dashForwardProgram() {
+        return cast(airProgram);
+    }
+
+    /**
+     * Casts the hand-written Chain Lightning.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean chainLightningJava() {
+        return cast(lightning);
+    }
+
+    /**
+     * Casts Chain Lightning as a program.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean chainLightningProgram() {
+        return cast(lightningProgram);
+    }
+
+    /**
+     * Casts the hand-written Shadow Curse.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean shadowCurseJava() {
+        return cast(darkness);
+    }
+
+    /**
+     * Casts Shadow Curse as a program.
+     *
+     * @return whether it activated
+     */
+    @Benchmark
+    public boolean shadowCurseProgram() {
+        return cast(darknessProgram);
+    }
+}
@@ -0,0 +1,100 @@
+package carnage.cAbilityStones.benchmarks;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.managers.StoneManager;
+import carnage.cAbilityStones.models.StoneType;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures identifying and creating stones on a mocked server.
+ * <p>
+ * Identification is measured for a stone, for an untagged item of a stone material and for an
+ * item of an unrelated material, which is what most interact events carry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoneManagerBenchmark {
+    private StoneManager stoneManager;
+    private ItemStack stone;
+    private ItemStack plainDye;
+    private ItemStack sword;
+
+    /**
+     * Starts the mocked server, loads the plugin and builds the items.
+     */
+    @Setup
+    public void setUp() {
+        MockBukkit.mock();
+        stoneManager = MockBukkit.load(CAbilityStones.class).getStoneManager();
+        stone = stoneManager.createStone(StoneType.FIRE);
+        plainDye = new ItemStack(stone.getType());
+        sword = new ItemStack(Material.DIAMOND_SWORD);
+    }
+
+    /**
+     * Stops the mocked server.
+     */
+    @TearDown
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Identifies a stone.
+     *
+     * @return the stone type
+     */
+    @Benchmark
+    public StoneType identifyStone() {
+        return stoneManager.getStoneType(stone);
+    }
+
+    /**
+     * Identifies an untagged item made of a stone material.
+     *
+     * @return null
+     */
+    @Benchmark
+    public StoneType identifyStoneMaterial() {
+        return stoneManager.getStoneType(plainDye);
+    }
+
+    /**
+     * Identifies an item of a material no stone uses.
+     *
+     * @return null
+     */
+    @Benchmark
+    public StoneType identifyOtherMaterial() {
+        return stoneManager.getStoneType(sword);
+    }
+
+    /**
+     * Creates a stone from its template.
+     *
+     * @return the new stone
+     */
+    @Benchmark
+    public ItemStack createStone() {
+        return stoneManager.createStone(StoneType.FIRE);
+    }
+}
@@ -0,0 +1,209 @@
+package carnage.cAbilityStones.benchmarks;
+
+import carnage.cAbilityStones.utils.SpatialHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Measures Chain Lightning target selection at several entity densities.
+ * <p>
+ * Targets are spread over a 64 x 16 x 64 block area around the caster. The first pair compares
+ * the original stream that sorted every entity in a box around the caster with the spatial index;
+ * the second pair runs a full chain, one nearest-target query per hop, against the index and
+ * against a linear scan of every entity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TargetSelectionBenchmark {
+    private static final double AREA = 64;
+    private static final double HEIGHT = 16;
+    private static final double RANGE = 10;
+    private static final double HOP_RANGE = 5;
+    private static final int INITIAL_TARGETS = 3;
+    private static final int MAX_HOPS = 5;
+
+    @Param({"50", "500", "5000"})
+    private int entities;
+
+    private Target[] targets;
+    private SpatialHash<Target> index;
+    private List<Target> found;
+    private Target[] struck;
+    private int hits;
+    private Predicate<Target> candidate;
+    private double casterX;
+    private double casterY;
+    private double casterZ;
+
+    /**
+     * Scatters the targets and indexes them.
+     */
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        targets = new Target[entities];
+        index = new SpatialHash<>(8);
+        for (int i = 0; i < entities; i++) {
+            targets[i] = new Target(random.nextDouble(AREA), random.nextDouble(HEIGHT), random.nextDouble(AREA));
+            index.put(targets[i], targets[i].x, targets[i].y, targets[i].z);
+        }
+        found = new ArrayList<>();
+        struck = new Target[MAX_HOPS];
+        candidate = this::isCandidate;
+        casterX = AREA / 2;
+        casterY = HEIGHT / 2;
+        casterZ = AREA / 2;
+    }
+
+    /**
+     * Selects the nearest targets the way the ability originally did: a box query, a sort of the
+     * whole box by distance and a limit.
+     *
+     * @return the selected targets
+     */
+    @Benchmark
+    public List<Target> nearestByStreamSort() {
+        return Arrays.stream(targets)
+                .filter(target -> Math.abs(target.x - casterX) <= RANGE
+                        && Math.abs(target.y - casterY) <= RANGE
+                        && Math.abs(target.z - casterZ) <= RANGE)
+                .sorted(Comparator.comparingDouble(target -> target.distanceSquared(casterX, casterY, casterZ)))
+                .limit(INITIAL_TARGETS)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Selects the nearest targets through the spatial index.
+     *
+     * @return the number of selected targets
+     */
+    @Benchmark
+    public int nearestByIndex() {
+        found.clear();
+        return index.nearest(casterX, casterY, casterZ, RANGE, INITIAL_TARGETS, target -> true, found);
+    }
+
+    /**
+     * Runs a full chain through the spatial index.
+     *
+     * @return the number of targets struck
+     */
+    @Benchmark
+    public int chainByIndex() {
+        hits = 0;
+        double x = casterX, y = casterY, z = casterZ;
+        double range = RANGE;
+        while (hits < MAX_HOPS) {
+            found.clear();
+            if (index.nearest(x, y, z, range, 1, candidate, found) == 0) {
+                break;
+            }
+            Target target = found.get(0);
+            struck[hits++] = target;
+            x = target.x;
+            y = target.y;
+            z = target.z;
+            range = HOP_RANGE;
+        }
+        return hits;
+    }
+
+    /**
+     * Runs a full chain with a linear scan of every target per hop.
+     *
+     * @return the number of targets struck
+     */
+    @Benchmark
+    public int chainByLinearScan() {
+        hits = 0;
+        double x = casterX, y = casterY, z = casterZ;
+        double range = RANGE;
+        while (hits < MAX_HOPS) {
+            Target nearest = null;
+            double nearestDistance = range * range;
+            for (Target target : targets) {
+                double distance = target.distanceSquared(x, y, z);
+                if (distance <= nearestDistance && isCandidate(target)) {
+                    nearest = target;
+                    nearestDistance = distance;
+                }
+            }
+            if (nearest == null) {
+                break;
+            }
+            struck[hits++] = nearest;
+            x = nearest.x;
+            y = nearest.y;
+            z = nearest.z;
+            range = HOP_RANGE;
+        }
+        return hits;
+    }
+
+    /**
+     * Checks if a target was not struck yet in the current chain.
+     *
+     * @param target the target to check
+     * @return true if the target can be struck
+     */
+    private boolean isCandidate(Target target) {
+        for (int i = 0; i < hits; i++) {
+            if (struck[i] == target) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A stand-in for a living entity with a fixed position.
+     */
+    public static final class Target {
+        private final double x;
+        private final double y;
+        private final double z;
+
+        private Target(double x, double y, double z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        /**
+         * Gets the squared distance to a point.
+         *
+         * @param px the point x coordinate
+         * @param py the point y coordinate
+         * @param pz the point z coordinate
+         * @return the squared distance
+         */
+        private double distanceSquared(double px, double py, double pz) {
+            double dx = x - px;
+            double dy = y - py;
+            double dz = z - pz;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
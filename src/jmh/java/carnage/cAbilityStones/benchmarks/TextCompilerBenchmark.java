@@ -0,0 +1,86 @@
+package carnage.cAbilityStones.benchmarks;
+
+import carnage.cAbilityStones.utils.TextCompiler;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning legacy colour-coded text into components.
+ * <p>
+ * The serializer benchmark is the per-call deserialization that {@link TextCompiler} replaced
+ * the old {@code translateLegacyColorCodes} helpers with; the other two cover a cache hit and a
+ * parse that misses the cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextCompilerBenchmark {
+    private static final String TEXT = "&c&lFire Stone &7- &eCooldown: &f10s";
+    private static final String[] MISSES = new String[1024];
+
+    static {
+        for (int i = 0; i < MISSES.length; i++) {
+            MISSES[i] = "&cAbility on cooldown! &e" + (i / 10.0) + "s remaining";
+        }
+    }
+
+    private TextCompiler compiler;
+    private TextCompiler tinyCompiler;
+    private int cursor;
+
+    /**
+     * Creates a warm compiler, and one too small to keep any of the miss texts.
+     */
+    @Setup
+    public void setUp() {
+        compiler = new TextCompiler();
+        compiler.compile(TEXT);
+        tinyCompiler = new TextCompiler(1);
+    }
+
+    /**
+     * Compiles a text that is already cached.
+     *
+     * @return the component
+     */
+    @Benchmark
+    public Component compileCached() {
+        return compiler.compile(TEXT);
+    }
+
+    /**
+     * Compiles a text that is not cached.
+     *
+     * @return the component
+     */
+    @Benchmark
+    public Component compileMiss() {
+        cursor = (cursor + 1) & (MISSES.length - 1);
+        return tinyCompiler.compile(MISSES[cursor]);
+    }
+
+    /**
+     * Deserializes the text without any caching.
+     *
+     * @return the component
+     */
+    @Benchmark
+    public Component legacySerializer() {
+        return LegacyComponentSerializer.legacyAmpersand().deserialize(TEXT);
+    }
+}
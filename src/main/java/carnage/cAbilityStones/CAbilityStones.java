@@ -1,20 +1,58 @@
 package carnage.cAbilityStones;
 
 import carnage.cAbilityStones.commands.StoneCommand;
+import carnage.cAbilityStones.effects.DisplayPool;
+import carnage.cAbilityStones.effects.EffectEngine;
+import carnage.cAbilityStones.effects.ExplosionBatcher;
+import carnage.cAbilityStones.effects.ParticleDispatcher;
+import carnage.cAbilityStones.listeners.EntityMoveListener;
+import carnage.cAbilityStones.listeners.PlayerConnectionListener;
 import carnage.cAbilityStones.listeners.StoneInteractListener;
+import carnage.cAbilityStones.listeners.TargetIndexListener;
 import carnage.cAbilityStones.managers.AbilityManager;
+import carnage.cAbilityStones.managers.CooldownHud;
 import carnage.cAbilityStones.managers.CooldownManager;
+import carnage.cAbilityStones.managers.MetricsManager;
+import carnage.cAbilityStones.managers.SessionManager;
+import carnage.cAbilityStones.managers.SettingsManager;
+import carnage.cAbilityStones.managers.StatsManager;
 import carnage.cAbilityStones.managers.StoneManager;
+import carnage.cAbilityStones.managers.TargetIndex;
+import carnage.cAbilityStones.managers.TargetingPipeline;
+import carnage.cAbilityStones.storage.CooldownJournal;
+import carnage.cAbilityStones.storage.CooldownStore;
+import carnage.cAbilityStones.storage.MemoryCooldownStore;
+import carnage.cAbilityStones.storage.PluginMessageTransport;
+import carnage.cAbilityStones.storage.SyncedCooldownStore;
+import carnage.cAbilityStones.utils.SchedulerAdapter;
+import carnage.cAbilityStones.utils.TextCompiler;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+
 /**
  * Main plugin class for CAbilityStones, managing initialization and component access.
  */
 public final class CAbilityStones extends JavaPlugin {
     private static CAbilityStones instance;
+    private SchedulerAdapter schedulerAdapter;
+    private MetricsManager metricsManager;
+    private StatsManager statsManager;
     private StoneManager stoneManager;
     private AbilityManager abilityManager;
     private CooldownManager cooldownManager;
+    private CooldownHud cooldownHud;
+    private SessionManager sessionManager;
+    private SettingsManager settingsManager;
+    private EffectEngine effectEngine;
+    private ParticleDispatcher particleDispatcher;
+    private DisplayPool displayPool;
+    private ExplosionBatcher explosionBatcher;
+    private TargetIndex targetIndex;
+    private TargetingPipeline targetingPipeline;
+    private CooldownJournal cooldownJournal;
+    private TextCompiler textCompiler;
 
     @Override
     public void onEnable() {
@@ -26,6 +64,33 @@ public final class CAbilityStones extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (effectEngine != null) {
+            effectEngine.shutdown();
+        }
+        if (displayPool != null) {
+            displayPool.clear();
+        }
+        if (targetingPipeline != null) {
+            targetingPipeline.shutdown();
+        }
+        if (targetIndex != null) {
+            targetIndex.shutdown();
+        }
+        if (cooldownHud != null) {
+            cooldownHud.shutdown();
+        }
+        if (cooldownManager != null) {
+            cooldownManager.shutdown();
+        }
+        if (statsManager != null) {
+            statsManager.shutdown();
+        }
+        if (cooldownJournal != null) {
+            cooldownJournal.flush();
+        }
+        if (metricsManager != null) {
+            metricsManager.shutdown();
+        }
         getLogger().info("AbilityStones disabled!");
     }
 
@@ -34,9 +99,66 @@ public final class CAbilityStones extends JavaPlugin {
      */
     private void initializeComponents() {
         saveDefaultConfig();
-        cooldownManager = new CooldownManager();
+        schedulerAdapter = new SchedulerAdapter(this);
+        metricsManager = new MetricsManager(this);
+        statsManager = new StatsManager(this);
+        statsManager.start();
+        textCompiler = new TextCompiler();
+        settingsManager = new SettingsManager(this);
+        particleDispatcher = new ParticleDispatcher(this);
+        displayPool = new DisplayPool(this);
+        effectEngine = new EffectEngine(this);
+        effectEngine.start();
+        targetIndex = new TargetIndex(this);
+        targetIndex.start();
+        targetingPipeline = new TargetingPipeline(this);
+        explosionBatcher = new ExplosionBatcher(this);
+        cooldownManager = new CooldownManager(createCooldownStore());
+        sessionManager = new SessionManager(this);
+        cooldownHud = new CooldownHud(this);
+        cooldownHud.start();
+        initializePersistence();
+        for (Player player : getServer().getOnlinePlayers()) {
+            cooldownManager.restore(player.getUniqueId());
+        }
         abilityManager = new AbilityManager(this);
         stoneManager = new StoneManager(this);
+        metricsManager.start();
+    }
+
+    /**
+     * Creates the cooldown store, synchronised with the other servers of the network if enabled.
+     *
+     * @return the cooldown store
+     */
+    private CooldownStore createCooldownStore() {
+        MemoryCooldownStore memoryStore = new MemoryCooldownStore();
+        if (!getConfig().getBoolean("sync.enabled", false)) {
+            return memoryStore;
+        }
+
+        SyncedCooldownStore syncedStore = new SyncedCooldownStore(memoryStore, new PluginMessageTransport(this), getLogger());
+
+        long interval = Math.max(1, getConfig().getLong("sync.flush_interval_ticks", 5));
+        schedulerAdapter.runTimer(syncedStore::flush, interval, interval);
+        return syncedStore;
+    }
+
+    /**
+     * Replays persisted cooldowns and starts the write-behind journal if persistence is enabled.
+     */
+    private void initializePersistence() {
+        if (!getConfig().getBoolean("persistence.enabled", false)) {
+            return;
+        }
+
+        getDataFolder().mkdirs();
+        cooldownJournal = new CooldownJournal(new File(getDataFolder(), "cooldowns.journal"), getLogger());
+        cooldownManager.load(cooldownJournal.replay());
+        cooldownManager.setJournal(cooldownJournal);
+
+        long interval = Math.max(1, getConfig().getLong("persistence.flush_interval_ticks", 40));
+        schedulerAdapter.runAsyncTimer(cooldownJournal::flush, interval, interval);
     }
 
     /**
@@ -44,9 +166,32 @@ public final class CAbilityStones extends JavaPlugin {
      */
     private void registerComponents() {
         getServer().getPluginManager().registerEvents(new StoneInteractListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerConnectionListener(this), this);
+        if (targetIndex.isEnabled()) {
+            getServer().getPluginManager().registerEvents(new TargetIndexListener(targetIndex), this);
+            if (getConfig().getBoolean("targeting.track_mob_movement", false)) {
+                getServer().getPluginManager().registerEvents(new EntityMoveListener(targetIndex), this);
+            }
+        }
         getCommand("stone").setExecutor(new StoneCommand(this));
     }
 
+    /**
+     * Reloads the configuration and refreshes every component that caches it.
+     */
+    public void reload() {
+        reloadConfig();
+        settingsManager.reload();
+        effectEngine.reload();
+        particleDispatcher.reload();
+        displayPool.reload();
+        targetIndex.reload();
+        explosionBatcher.reload();
+        sessionManager.reload();
+        cooldownHud.reload();
+        stoneManager.reload();
+    }
+
     /**
      * Gets the singleton instance of the plugin.
      *
@@ -56,6 +201,33 @@ public final class CAbilityStones extends JavaPlugin {
         return instance;
     }
 
+    /**
+     * Gets the scheduler adapter.
+     *
+     * @return the scheduler adapter
+     */
+    public SchedulerAdapter getSchedulerAdapter() {
+        return schedulerAdapter;
+    }
+
+    /**
+     * Gets the metrics manager.
+     *
+     * @return the metrics manager
+     */
+    public MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+
+    /**
+     * Gets the usage statistics manager.
+     *
+     * @return the stats manager
+     */
+    public StatsManager getStatsManager() {
+        return statsManager;
+    }
+
     /**
      * Gets the stone manager.
      *
@@ -74,6 +246,78 @@ public final class CAbilityStones extends JavaPlugin {
         return abilityManager;
     }
 
+    /**
+     * Gets the settings manager.
+     *
+     * @return the settings manager
+     */
+    public SettingsManager getSettingsManager() {
+        return settingsManager;
+    }
+
+    /**
+     * Gets the effect engine.
+     *
+     * @return the effect engine
+     */
+    public EffectEngine getEffectEngine() {
+        return effectEngine;
+    }
+
+    /**
+     * Gets the particle dispatcher.
+     *
+     * @return the particle dispatcher
+     */
+    public ParticleDispatcher getParticleDispatcher() {
+        return particleDispatcher;
+    }
+
+    /**
+     * Gets the display pool.
+     *
+     * @return the display pool
+     */
+    public DisplayPool getDisplayPool() {
+        return displayPool;
+    }
+
+    /**
+     * Gets the explosion batcher.
+     *
+     * @return the explosion batcher
+     */
+    public ExplosionBatcher getExplosionBatcher() {
+        return explosionBatcher;
+    }
+
+    /**
+     * Gets the target index.
+     *
+     * @return the target index
+     */
+    public TargetIndex getTargetIndex() {
+        return targetIndex;
+    }
+
+    /**
+     * Gets the targeting pipeline.
+     *
+     * @return the targeting pipeline
+     */
+    public TargetingPipeline getTargetingPipeline() {
+        return targetingPipeline;
+    }
+
+    /**
+     * Gets the session manager.
+     *
+     * @return the session manager
+     */
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
     /**
      * Gets the cooldown manager.
      *
@@ -82,4 +326,22 @@ public final class CAbilityStones extends JavaPlugin {
     public CooldownManager getCooldownManager() {
         return cooldownManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the cooldown HUD.
+     *
+     * @return the cooldown HUD
+     */
+    public CooldownHud getCooldownHud() {
+        return cooldownHud;
+    }
+
+    /**
+     * Gets the shared legacy text compiler.
+     *
+     * @return the text compiler
+     */
+    public TextCompiler getTextCompiler() {
+        return textCompiler;
+    }
+}
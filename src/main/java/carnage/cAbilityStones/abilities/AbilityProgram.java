@@ -0,0 +1,407 @@
+package carnage.cAbilityStones.abilities;
+
+import carnage.cAbilityStones.models.TargetQuery;
+import carnage.cAbilityStones.utils.TextCompiler;
+import org.bukkit.Color;
+import org.bukkit.Particle;
+import org.bukkit.Registry;
+import org.bukkit.Sound;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An ability defined in the configuration, compiled into a flat list of instructions.
+ * <p>
+ * Each step of a stone's {@code program} list becomes one instruction: an opcode and the offset of
+ * its numeric operands. Everything that needs a lookup or parsing (particles, potion effects,
+ * sounds and messages) is resolved once at compile time into a constant table that operands
+ * refer to by index, so running a program only reads arrays.
+ * <p>
+ * Supported steps:
+ * <ul>
+ *     <li>{@code self} targets the caster</li>
+ *     <li>{@code select: {range, limit, kinds, line_of_sight}} targets entities around the origin, nearest first when limited</li>
+ *     <li>{@code chain: {hops, range}} adds targets by hopping from the last target to the nearest one not targeted yet</li>
+ *     <li>{@code require_targets: message} fails the activation, without cooldown, if nothing is targeted</li>
+ *     <li>{@code damage: {amount, falloff}} damages the targets, the n-th target by amount &times; falloff<sup>n</sup></li>
+ *     <li>{@code heal: amount}, {@code potion: {type, duration, amplifier}} and {@code knockback: {power, lift}} affect the targets</li>
+ *     <li>{@code launch: {power, lift}} throws the caster along their view</li>
+ *     <li>{@code lightning: {at}}, {@code explode: power}, {@code sound: {type, volume, pitch}} and
+ *     {@code particle: {type, count, spread, speed, color, size, at}} play at the origin, the targets or the caster</li>
+ *     <li>{@code message: text} tells the caster something</li>
+ *     <li>{@code wait: ticks} continues the program later</li>
+ *     <li>{@code projectile: {speed, max_ticks, trail, trail_count}} flies from the caster's eyes until it hits a
+ *     block or burns out, then continues the program with the origin at the impact</li>
+ * </ul>
+ */
+public final class AbilityProgram {
+    static final int SELF = 0;
+    static final int SELECT = 1;
+    static final int CHAIN = 2;
+    static final int REQUIRE_TARGETS = 3;
+    static final int DAMAGE = 4;
+    static final int HEAL = 5;
+    static final int POTION = 6;
+    static final int KNOCKBACK = 7;
+    static final int LAUNCH = 8;
+    static final int LIGHTNING = 9;
+    static final int EXPLODE = 10;
+    static final int PARTICLE = 11;
+    static final int SOUND = 12;
+    static final int MESSAGE = 13;
+    static final int WAIT = 14;
+    static final int PROJECTILE = 15;
+
+    static final int AT_ORIGIN = 0;
+    static final int AT_TARGETS = 1;
+    static final int AT_CASTER = 2;
+
+    private static final double REQUIRED = Double.NaN;
+
+    final int[] code;
+    final double[] operands;
+    final Object[] constants;
+
+    private AbilityProgram(int[] code, double[] operands, Object[] constants) {
+        this.code = code;
+        this.operands = operands;
+        this.constants = constants;
+    }
+
+    /**
+     * Compiles a program from its configuration steps.
+     *
+     * @param steps the steps, each a map with a single action name
+     * @param text the compiler for message text
+     * @return the compiled program
+     * @throws IllegalArgumentException if a step is unknown or has invalid arguments
+     */
+    public static AbilityProgram compile(List<Map<?, ?>> steps, TextCompiler text) {
+        Builder builder = new Builder();
+        for (int i = 0; i < steps.size(); i++) {
+            Map<?, ?> step = steps.get(i);
+            if (step.size() != 1) {
+                throw new IllegalArgumentException("step " + (i + 1) + " must have exactly one action");
+            }
+
+            Map.Entry<?, ?> entry = step.entrySet().iterator().next();
+            String action = String.valueOf(entry.getKey()).toLowerCase(Locale.ROOT);
+            try {
+                compileStep(builder, action, entry.getValue(), text);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("step " + (i + 1) + " (" + action + "): " + e.getMessage(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gets the number of instructions.
+     *
+     * @return the program length
+     */
+    public int length() {
+        return code.length / 2;
+    }
+
+    /**
+     * Compiles one step into an instruction.
+     *
+     * @param builder the program being built
+     * @param action the step's action name
+     * @param value the step's arguments, a map or a single value
+     * @param text the compiler for message text
+     */
+    private static void compileStep(Builder builder, String action, Object value, TextCompiler text) {
+        switch (action) {
+            case "self" -> builder.emit(SELF);
+            case "select" -> {
+                Map<?, ?> args = args(value, "range");
+                builder.emit(SELECT, positive(args, "range", REQUIRED), whole(args, "limit", 0),
+                        kinds(args.get("kinds")), flag(args, "line_of_sight"));
+            }
+            case "chain" -> {
+                Map<?, ?> args = args(value, "hops");
+                builder.emit(CHAIN, whole(args, "hops", REQUIRED), positive(args, "range", REQUIRED));
+            }
+            case "require_targets" -> builder.emit(REQUIRE_TARGETS, value == null ? -1 : builder.constant(text.compile(value.toString())));
+            case "damage" -> {
+                Map<?, ?> args = args(value, "amount");
+                builder.emit(DAMAGE, positive(args, "amount", REQUIRED), positive(args, "falloff", 1));
+            }
+            case "heal" -> builder.emit(HEAL, positive(args(value, "amount"), "amount", REQUIRED));
+            case "potion" -> {
+                Map<?, ?> args = args(value, "type");
+                PotionEffectType type = Registry.EFFECT.match(string(args, "type"));
+                if (type == null) {
+                    throw new IllegalArgumentException("unknown potion effect '" + args.get("type") + "'");
+                }
+                builder.emit(POTION, builder.constant(new PotionEffect(type,
+                        (int) whole(args, "duration", 100), (int) whole(args, "amplifier", 0))));
+            }
+            case "knockback" -> {
+                Map<?, ?> args = args(value, "power");
+                builder.emit(KNOCKBACK, number(args, "power", REQUIRED), number(args, "lift", 0));
+            }
+            case "launch" -> {
+                Map<?, ?> args = args(value, "power");
+                builder.emit(LAUNCH, number(args, "power", REQUIRED), number(args, "lift", 0));
+            }
+            case "lightning" -> builder.emit(LIGHTNING, at(args(value, "at"), AT_TARGETS));
+            case "explode" -> builder.emit(EXPLODE, positive(args(value, "power"), "power", REQUIRED));
+            case "particle" -> compileParticle(builder, args(value, "type"));
+            case "sound" -> {
+                Map<?, ?> args = args(value, "type");
+                Sound sound = Registry.SOUNDS.match(string(args, "type"));
+                if (sound == null) {
+                    throw new IllegalArgumentException("unknown sound '" + args.get("type") + "'");
+                }
+                builder.emit(SOUND, builder.constant(sound), positive(args, "volume", 1), positive(args, "pitch", 1));
+            }
+            case "message" -> builder.emit(MESSAGE, builder.constant(text.compile(String.valueOf(value))));
+            case "wait" -> builder.emit(WAIT, Math.max(1, whole(args(value, "ticks"), "ticks", REQUIRED)));
+            case "projectile" -> {
+                Map<?, ?> args = args(value, "speed");
+                Object trail = args.get("trail");
+                builder.emit(PROJECTILE, positive(args, "speed", REQUIRED), Math.max(1, whole(args, "max_ticks", 100)),
+                        trail == null ? -1 : builder.constant(particle(trail.toString())), whole(args, "trail_count", 1));
+            }
+            default -> throw new IllegalArgumentException("unknown action");
+        }
+    }
+
+    /**
+     * Compiles a particle step, resolving the particle and its dust colour.
+     *
+     * @param builder the program being built
+     * @param args the step arguments
+     */
+    private static void compileParticle(Builder builder, Map<?, ?> args) {
+        Particle particle = particle(string(args, "type"));
+        int data = -1;
+        if (particle.getDataType() == Particle.DustOptions.class) {
+            String hex = string(args, "color");
+            Color color;
+            try {
+                color = Color.fromRGB(Integer.parseInt(hex.replace("#", ""), 16));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("'color' must be a hex colour like #00BFFF");
+            }
+            data = builder.constant(new Particle.DustOptions(color, (float) positive(args, "size", 1)));
+        } else if (particle.getDataType() != Void.class) {
+            throw new IllegalArgumentException("particle " + particle + " needs data that programs cannot provide");
+        }
+
+        builder.emit(PARTICLE, builder.constant(particle), data, whole(args, "count", 1),
+                number(args, "spread", 0), number(args, "speed", 0), at(args, AT_ORIGIN));
+    }
+
+    /**
+     * Resolves a particle by name.
+     *
+     * @param name the particle name
+     * @return the particle
+     */
+    private static Particle particle(String name) {
+        try {
+            return Particle.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown particle '" + name + "'");
+        }
+    }
+
+    /**
+     * Gets the arguments of a step, treating a single value as the given argument.
+     *
+     * @param value the step value
+     * @param key the argument a single value stands for
+     * @return the arguments
+     */
+    private static Map<?, ?> args(Object value, String key) {
+        if (value instanceof Map<?, ?> map) {
+            return map;
+        }
+        return value == null ? Map.of() : Map.of(key, value);
+    }
+
+    /**
+     * Reads a numeric argument.
+     *
+     * @param args the step arguments
+     * @param key the argument name
+     * @param fallback the value if absent, or {@link #REQUIRED}
+     * @return the value
+     */
+    private static double number(Map<?, ?> args, String key, double fallback) {
+        Object value = args.get(key);
+        if (value == null) {
+            if (Double.isNaN(fallback)) {
+                throw new IllegalArgumentException("missing '" + key + "'");
+            }
+            return fallback;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + key + "' is not a number: " + value);
+        }
+    }
+
+    /**
+     * Reads a numeric argument that must not be negative.
+     *
+     * @param args the step arguments
+     * @param key the argument name
+     * @param fallback the value if absent, or {@link #REQUIRED}
+     * @return the value
+     */
+    private static double positive(Map<?, ?> args, String key, double fallback) {
+        double value = number(args, key, fallback);
+        if (value < 0) {
+            throw new IllegalArgumentException("'" + key + "' must not be negative");
+        }
+        return value;
+    }
+
+    /**
+     * Reads a whole number argument that must not be negative.
+     *
+     * @param args the step arguments
+     * @param key the argument name
+     * @param fallback the value if absent, or {@link #REQUIRED}
+     * @return the value
+     */
+    private static double whole(Map<?, ?> args, String key, double fallback) {
+        return Math.floor(positive(args, key, fallback));
+    }
+
+    /**
+     * Reads a boolean argument, false if absent.
+     *
+     * @param args the step arguments
+     * @param key the argument name
+     * @return 1 if true, 0 otherwise
+     */
+    private static double flag(Map<?, ?> args, String key) {
+        return Boolean.parseBoolean(String.valueOf(args.get(key))) ? 1 : 0;
+    }
+
+    /**
+     * Reads a required text argument.
+     *
+     * @param args the step arguments
+     * @param key the argument name
+     * @return the value
+     */
+    private static String string(Map<?, ?> args, String key) {
+        Object value = args.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("missing '" + key + "'");
+        }
+        return value.toString();
+    }
+
+    /**
+     * Reads where a step plays.
+     *
+     * @param args the step arguments
+     * @param fallback the position if absent
+     * @return one of the {@code AT_} constants
+     */
+    private static double at(Map<?, ?> args, int fallback) {
+        Object value = args.get("at");
+        if (value == null) {
+            return fallback;
+        }
+        return switch (value.toString().toLowerCase(Locale.ROOT)) {
+            case "origin" -> AT_ORIGIN;
+            case "targets" -> AT_TARGETS;
+            case "caster" -> AT_CASTER;
+            default -> throw new IllegalArgumentException("'at' must be origin, targets or caster");
+        };
+    }
+
+    /**
+     * Reads the accepted entity kinds of a selection, every kind if absent.
+     *
+     * @param value a kind name or a list of them
+     * @return the {@link TargetQuery} kind mask
+     */
+    private static double kinds(Object value) {
+        if (value == null) {
+            return TargetQuery.ALL;
+        }
+
+        int kinds = 0;
+        for (Object kind : value instanceof List<?> list ? list : List.of(value)) {
+            kinds |= switch (kind.toString().toLowerCase(Locale.ROOT)) {
+                case "players" -> TargetQuery.PLAYERS;
+                case "hostiles" -> TargetQuery.HOSTILES;
+                case "others" -> TargetQuery.OTHERS;
+                case "all" -> TargetQuery.ALL;
+                default -> throw new IllegalArgumentException("unknown kind '" + kind + "', use players, hostiles, others or all");
+            };
+        }
+        return kinds;
+    }
+
+    /**
+     * Collects instructions, operands and constants into growing arrays.
+     */
+    private static final class Builder {
+        private int[] code = new int[32];
+        private double[] operands = new double[64];
+        private final List<Object> constants = new ArrayList<>();
+        private int codeSize;
+        private int operandSize;
+
+        /**
+         * Appends an instruction.
+         *
+         * @param opcode the opcode
+         * @param values the operands
+         */
+        private void emit(int opcode, double... values) {
+            if (codeSize + 2 > code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            if (operandSize + values.length > operands.length) {
+                operands = Arrays.copyOf(operands, Math.max(operands.length * 2, operandSize + values.length));
+            }
+
+            code[codeSize++] = opcode;
+            code[codeSize++] = operandSize;
+            System.arraycopy(values, 0, operands, operandSize, values.length);
+            operandSize += values.length;
+        }
+
+        /**
+         * Adds a constant.
+         *
+         * @param value the constant
+         * @return its index
+         */
+        private int constant(Object value) {
+            constants.add(value);
+            return constants.size() - 1;
+        }
+
+        /**
+         * Creates the program from the collected arrays.
+         *
+         * @return the program
+         */
+        private AbilityProgram build() {
+            return new AbilityProgram(Arrays.copyOf(code, codeSize), Arrays.copyOf(operands, operandSize), constants.toArray());
+        }
+    }
+}
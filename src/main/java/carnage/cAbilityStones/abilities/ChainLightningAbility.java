@@ -1,23 +1,30 @@
 package carnage.cAbilityStones.abilities;
 
 import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.effects.Effect;
+import carnage.cAbilityStones.effects.ParticleDispatcher;
+import carnage.cAbilityStones.effects.ParticleViewers;
+import carnage.cAbilityStones.managers.StatsManager;
+import carnage.cAbilityStones.managers.TargetIndex;
+import carnage.cAbilityStones.models.AbilitySettings;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.models.TargetQuery;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 /**
- * Implements the Chain Lightning ability, striking up to three nearby enemies with lightning.
+ * Implements the Chain Lightning ability, striking the nearest enemy and jumping from target to target.
  */
 public class ChainLightningAbility implements Ability {
-    private static final double RANGE = 6.0;
-    private static final long DEFAULT_COOLDOWN = 12_000L;
-    private static final double DAMAGE = 6.0;
-
     private final CAbilityStones plugin;
 
     public ChainLightningAbility(CAbilityStones plugin) {
@@ -26,44 +33,31 @@ public class ChainLightningAbility implements Ability {
 
     @Override
     public boolean activate(Player player) {
-        List<LivingEntity> targets = findNearbyEnemies(player);
-        if (targets.isEmpty()) {
-            sendMessage(player, Component.text("No enemies nearby!", NamedTextColor.RED));
-            return false;
-        }
-
-        applyLightningEffect(player, targets);
-        sendMessage(player, Component.text("Chain Lightning struck " + targets.size() + " enemies!", NamedTextColor.YELLOW));
-        return true;
+        AbilitySettings settings = plugin.getSettingsManager().get(StoneType.LIGHTNING);
+        TargetQuery query = new TargetQuery(settings.getRange(), 1, TargetQuery.ALL, settings.isLineOfSight());
+        return plugin.getTargetingPipeline().select(player, query, settings.isAsyncTargeting(),
+                targets -> startChain(player, settings, query, targets));
     }
 
     /**
-     * Finds up to three nearby enemies within the specified range, excluding the player.
+     * Strikes the first target and starts the chain from it.
      *
      * @param player the player activating the ability
-     * @return list of up to three nearby enemies
-     */
-    private List<LivingEntity> findNearbyEnemies(Player player) {
-        return player.getNearbyEntities(RANGE, RANGE, RANGE).stream()
-                .filter(entity -> entity instanceof LivingEntity)
-                .filter(entity -> !(entity instanceof Player && entity.equals(player)))
-                .map(entity -> (LivingEntity) entity)
-                .sorted(Comparator.comparingDouble(e -> e.getLocation().distanceSquared(player.getLocation())))
-                .limit(3)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Applies lightning effect and damage to the target entities.
-     *
-     * @param player the player causing the damage
-     * @param targets the list of target entities
+     * @param settings the ability settings
+     * @param query the query the first target was selected with, also applied to every hop
+     * @param targets the nearest enemy, if any
+     * @return true if the chain started
      */
-    private void applyLightningEffect(Player player, List<LivingEntity> targets) {
-        for (LivingEntity enemy : targets) {
-            enemy.getWorld().strikeLightningEffect(enemy.getLocation());
-            enemy.damage(DAMAGE, player);
+    private boolean startChain(Player player, AbilitySettings settings, TargetQuery query, List<LivingEntity> targets) {
+        if (targets.isEmpty()) {
+            sendMessage(player, Component.text("No enemies nearby!", NamedTextColor.RED));
+            return false;
         }
+
+        ChainEffect chain = new ChainEffect(plugin.getTargetIndex(), plugin.getParticleDispatcher(), plugin.getStatsManager(), player, settings, query);
+        chain.strike(targets.get(0));
+        plugin.getEffectEngine().register(chain);
+        return true;
     }
 
     /**
@@ -72,17 +66,177 @@ public class ChainLightningAbility implements Ability {
      * @param player the player to receive the message
      * @param message the message to send
      */
-    private void sendMessage(Player player, Component message) {
+    private static void sendMessage(Player player, Component message) {
         player.sendMessage(message);
     }
 
     @Override
     public String getName() {
-        return plugin.getConfig().getString("stones.lightning.ability_name", "Chain Lightning");
+        return plugin.getSettingsManager().get(StoneType.LIGHTNING).getName();
     }
 
     @Override
     public long getCooldown() {
-        return plugin.getConfig().getLong("stones.lightning.cooldown", DEFAULT_COOLDOWN / 1000) * 1000;
+        return plugin.getSettingsManager().get(StoneType.LIGHTNING).getCooldown();
+    }
+
+    /**
+     * Propagates the lightning from the last struck target to the nearest target not hit yet,
+     * one hop every few ticks, with the damage reduced on every hop.
+     * <p>
+     * Each hop is a single nearest-neighbour query, a linear pass over the candidates in range
+     * that never sorts them. Already struck targets are kept in a small array sized to the hop count.
+     */
+    private static final class ChainEffect implements Effect {
+        private static final double ARC_STEP = 0.5;
+        private static final double ARC_HEIGHT = 1.0;
+
+        private final TargetIndex targetIndex;
+        private final ParticleDispatcher dispatcher;
+        private final StatsManager stats;
+        private final ParticleViewers viewers;
+        private final Player player;
+        private final AbilitySettings settings;
+        private final TargetQuery query;
+        private final LivingEntity[] struck;
+        private final List<LivingEntity> found;
+        private final Predicate<LivingEntity> candidate;
+        private final Location origin;
+        private final Location arcStart;
+        private final Location arcEnd;
+        private int hits;
+        private int delay;
+        private double damage;
+        private boolean arcPending;
+
+        private ChainEffect(TargetIndex targetIndex, ParticleDispatcher dispatcher, StatsManager stats, Player player, AbilitySettings settings, TargetQuery query) {
+            this.targetIndex = targetIndex;
+            this.dispatcher = dispatcher;
+            this.stats = stats;
+            this.viewers = new ParticleViewers();
+            this.player = player;
+            this.settings = settings;
+            this.query = query;
+            this.struck = new LivingEntity[Math.max(1, settings.getMaxTargets())];
+            this.found = new ArrayList<>(1);
+            this.candidate = this::isCandidate;
+            this.origin = new Location(null, 0, 0, 0);
+            this.arcStart = new Location(null, 0, 0, 0);
+            this.arcEnd = new Location(null, 0, 0, 0);
+            this.damage = settings.getAmount();
+        }
+
+        @Override
+        public boolean tick() {
+            if (!player.isOnline()) {
+                return false;
+            }
+            if (++delay < settings.getHopDelay()) {
+                return true;
+            }
+
+            delay = 0;
+            if (hits < struck.length && hop()) {
+                return true;
+            }
+
+            sendMessage(player, Component.text("Chain Lightning struck " + hits + " enemies!", NamedTextColor.YELLOW));
+            return false;
+        }
+
+        @Override
+        public void render() {
+            if (!arcPending) {
+                return;
+            }
+
+            arcPending = false;
+            double dx = arcEnd.getX() - arcStart.getX();
+            double dy = arcEnd.getY() - arcStart.getY();
+            double dz = arcEnd.getZ() - arcStart.getZ();
+            if (!dispatcher.collect(arcEnd.getWorld(), arcStart.getX() + dx / 2, arcStart.getY() + dy / 2, arcStart.getZ() + dz / 2, viewers)) {
+                return;
+            }
+
+            int points = Math.max(1, (int) (Math.sqrt(dx * dx + dy * dy + dz * dz) / ARC_STEP));
+            for (int i = 0; i <= points; i++) {
+                double t = (double) i / points;
+                dispatcher.spawn(viewers, i, Particle.ELECTRIC_SPARK,
+                        arcStart.getX() + dx * t, arcStart.getY() + dy * t, arcStart.getZ() + dz * t,
+                        1, 0.05, 0.05, 0.05, 0, null);
+            }
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Entity owner() {
+            return player;
+        }
+
+        /**
+         * Strikes the nearest target within hop range of the last target struck.
+         *
+         * @return true if a target was struck
+         */
+        private boolean hop() {
+            found.clear();
+            if (targetIndex.findNearest(origin, settings.getHopRange(), 1, candidate, found) == 0) {
+                return false;
+            }
+
+            LivingEntity target = found.get(0);
+            found.clear();
+            strike(target);
+            return true;
+        }
+
+        /**
+         * Strikes a target and moves the chain to it.
+         *
+         * @param target the target to strike
+         */
+        private void strike(LivingEntity target) {
+            if (hits == 0) {
+                Location eye = player.getEyeLocation();
+                arcStart.set(eye.getX(), eye.getY(), eye.getZ());
+            } else {
+                arcStart.set(origin.getX(), origin.getY() + ARC_HEIGHT, origin.getZ());
+            }
+            target.getLocation(origin);
+            arcStart.setWorld(origin.getWorld());
+            arcEnd.setWorld(origin.getWorld());
+            arcEnd.set(origin.getX(), origin.getY() + ARC_HEIGHT, origin.getZ());
+            arcPending = true;
+
+            struck[hits++] = target;
+            target.getWorld().strikeLightningEffect(origin);
+            double health = target.getHealth();
+            target.damage(damage, player);
+            stats.recordHits(player, StoneType.LIGHTNING, 1);
+            stats.recordDamage(player, StoneType.LIGHTNING, health - target.getHealth(), target.isDead());
+            damage *= settings.getFalloff();
+        }
+
+        /**
+         * Checks if an entity can be the next target of the chain.
+         *
+         * @param entity the entity to check
+         * @return true if the entity is neither the caster nor already struck, matches the query's
+         *         kinds and, when the query requires it, is in the caster's line of sight
+         */
+        private boolean isCandidate(LivingEntity entity) {
+            if (entity == player || !query.accepts(entity)) {
+                return false;
+            }
+            for (int i = 0; i < hits; i++) {
+                if (struck[i] == entity) {
+                    return false;
+                }
+            }
+            return !query.lineOfSight() || player.hasLineOfSight(entity);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,27 +1,26 @@
 package carnage.cAbilityStones.abilities;
 
 import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.effects.Effect;
+import carnage.cAbilityStones.effects.ParticleDispatcher;
+import carnage.cAbilityStones.effects.ParticleViewers;
+import carnage.cAbilityStones.effects.Shape;
+import carnage.cAbilityStones.models.AbilitySettings;
+import carnage.cAbilityStones.models.StoneType;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Location;
 import org.bukkit.Particle;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
 /**
  * Implements the Dash Forward ability, propelling the player forward with speed and particle effects.
  */
 public class DashForwardAbility implements Ability {
-    private static final double DASH_MULTIPLIER = 2.0;
-    private static final double Y_OFFSET = 0.3;
-    private static final int SPEED_DURATION = 40;
-    private static final int SPEED_AMPLIFIER = 1;
-    private static final int PARTICLE_TICKS = 40;
-    private static final long DEFAULT_COOLDOWN = 8_000L;
-
     private final CAbilityStones plugin;
 
     public DashForwardAbility(CAbilityStones plugin) {
@@ -30,9 +29,10 @@ public class DashForwardAbility implements Ability {
 
     @Override
     public boolean activate(Player player) {
-        applyDash(player);
-        applySpeedEffect(player);
-        startParticleEffect(player);
+        AbilitySettings settings = plugin.getSettingsManager().get(StoneType.AIR);
+        applyDash(player, settings);
+        applySpeedEffect(player, settings);
+        startParticleEffect(player, settings);
         sendMessage(player, Component.text("Dash Forward activated!", NamedTextColor.WHITE));
         return true;
     }
@@ -41,58 +41,32 @@ public class DashForwardAbility implements Ability {
      * Applies the dash movement to the player.
      *
      * @param player the player to dash
+     * @param settings the ability settings
      */
-    private void applyDash(Player player) {
+    private void applyDash(Player player, AbilitySettings settings) {
         Vector direction = player.getLocation().getDirection().normalize();
-        direction.setY(Y_OFFSET);
-        player.setVelocity(direction.multiply(DASH_MULTIPLIER));
+        direction.setY(settings.getLift());
+        player.setVelocity(direction.multiply(settings.getPower()));
     }
 
     /**
      * Applies a speed potion effect to the player.
      *
      * @param player the player to receive the effect
+     * @param settings the ability settings
      */
-    private void applySpeedEffect(Player player) {
-        player.addPotionEffect(new PotionEffect(PotionEffectType.SPEED, SPEED_DURATION, SPEED_AMPLIFIER));
+    private void applySpeedEffect(Player player, AbilitySettings settings) {
+        player.addPotionEffect(new PotionEffect(PotionEffectType.SPEED, settings.getEffectDuration(), settings.getEffectAmplifier()));
     }
 
     /**
      * Starts the particle effect for the dash ability.
      *
      * @param player the player to show particles for
+     * @param settings the ability settings
      */
-    private void startParticleEffect(Player player) {
-        new BukkitRunnable() {
-            int ticks = 0;
-            double angle = 0;
-
-            @Override
-            public void run() {
-                if (ticks >= PARTICLE_TICKS) {
-                    cancel();
-                    return;
-                }
-
-                Location loc = player.getLocation().clone().add(0, 1, 0);
-                spawnDashParticles(loc, angle);
-                angle += 30;
-                ticks++;
-            }
-
-            private void spawnDashParticles(Location loc, double angle) {
-                for (int i = 0; i < 3; i++) {
-                    double offsetAngle = angle + (i * 120);
-                    double radians = Math.toRadians(offsetAngle);
-                    double x = Math.cos(radians) * 0.8;
-                    double z = Math.sin(radians) * 0.8;
-
-                    Location slashLoc = loc.clone().add(x, 0, z);
-                    player.getWorld().spawnParticle(Particle.SWEEP_ATTACK, slashLoc, 1, 0, 0, 0, 0);
-                    player.getWorld().spawnParticle(Particle.CRIT, slashLoc, 2, 0.1, 0.1, 0.1, 0);
-                }
-            }
-        }.runTaskTimer(plugin, 0, 1);
+    private void startParticleEffect(Player player, AbilitySettings settings) {
+        plugin.getEffectEngine().register(new DashTrailEffect(plugin.getParticleDispatcher(), player, settings));
     }
 
     /**
@@ -107,11 +81,79 @@ public class DashForwardAbility implements Ability {
 
     @Override
     public String getName() {
-        return plugin.getConfig().getString("stones.air.ability_name", "Dash Forward");
+        return plugin.getSettingsManager().get(StoneType.AIR).getName();
     }
 
     @Override
     public long getCooldown() {
-        return plugin.getConfig().getLong("stones.air.cooldown", DEFAULT_COOLDOWN / 1000) * 1000;
+        return plugin.getSettingsManager().get(StoneType.AIR).getCooldown();
+    }
+
+    /**
+     * Spins slash particles around the player while the dash lasts.
+     */
+    private static final class DashTrailEffect implements Effect {
+        private final ParticleDispatcher dispatcher;
+        private final ParticleViewers viewers;
+        private final Player player;
+        private final AbilitySettings settings;
+        private final Shape circle;
+        private final Location position;
+        private int ticks;
+        private double angle;
+
+        private DashTrailEffect(ParticleDispatcher dispatcher, Player player, AbilitySettings settings) {
+            this.dispatcher = dispatcher;
+            this.viewers = new ParticleViewers();
+            this.player = player;
+            this.settings = settings;
+            this.circle = Shape.circle();
+            this.position = new Location(null, 0, 0, 0);
+        }
+
+        @Override
+        public boolean tick() {
+            if (ticks >= settings.getLifetime() || !player.isOnline()) {
+                return false;
+            }
+
+            angle = ticks * settings.getSpeed();
+            ticks++;
+            return true;
+        }
+
+        @Override
+        public void render() {
+            Location loc = player.getLocation(position).add(0, 1, 0);
+            if (dispatcher.collect(loc, viewers)) {
+                spawnDashParticles(loc);
+            }
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Entity owner() {
+            return player;
+        }
+
+        /**
+         * Spawns the slash particles for the current rotation.
+         *
+         * @param loc the centre of the trail
+         */
+        private void spawnDashParticles(Location loc) {
+            int arms = settings.getParticleCount();
+            for (int i = 0; i < arms; i++) {
+                int point = Shape.degreeIndex(angle + (i * 360.0 / arms));
+                double x = circle.x(point) * settings.getRadius();
+                double z = circle.z(point) * settings.getRadius();
+
+                dispatcher.spawn(viewers, i, Particle.SWEEP_ATTACK, loc.getX() + x, loc.getY(), loc.getZ() + z, 1, 0, 0, 0, 0, null);
+                dispatcher.spawn(viewers, i, Particle.CRIT, loc.getX() + x, loc.getY(), loc.getZ() + z, 2, 0.1, 0.1, 0.1, 0, null);
+            }
+        }
     }
-}
\ No newline at end of file
+}
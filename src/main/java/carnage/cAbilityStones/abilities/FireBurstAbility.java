@@ -1,26 +1,30 @@
 package carnage.cAbilityStones.abilities;
 
 import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.effects.DisplayPool;
+import carnage.cAbilityStones.effects.Effect;
+import carnage.cAbilityStones.effects.ExplosionBatcher;
+import carnage.cAbilityStones.effects.ParticleDispatcher;
+import carnage.cAbilityStones.effects.ParticleViewers;
+import carnage.cAbilityStones.effects.Shape;
+import carnage.cAbilityStones.models.AbilitySettings;
+import carnage.cAbilityStones.models.StoneType;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
-import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.EntityType;
+import org.bukkit.entity.BlockDisplay;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
 /**
  * Implements the Fire Burst ability, launching a fireball with orbiting blocks that explodes on impact.
  */
 public class FireBurstAbility implements Ability {
-    private static final float EXPLOSION_POWER = 3.0f;
-    private static final double MOVE_SPEED = 0.5;
-    private static final int MAX_TICKS = 100;
-    private static final long DEFAULT_COOLDOWN = 10_000L;
+    private static final float CORE_SCALE = 0.6f;
+    private static final float ORBIT_SCALE = 0.35f;
+    private static final double ORBIT_DEGREES_PER_TICK = 20;
 
     private final CAbilityStones plugin;
 
@@ -30,49 +34,39 @@ public class FireBurstAbility implements Ability {
 
     @Override
     public boolean activate(Player player) {
+        AbilitySettings settings = plugin.getSettingsManager().get(StoneType.FIRE);
         Location startLoc = player.getEyeLocation();
         Vector direction = startLoc.getDirection().normalize();
-        ArmorStand core = createCore(startLoc);
-        ArmorStand[] orbitingBlocks = createOrbitingBlocks(startLoc);
+        boolean displays = plugin.getDisplayPool().isEnabled();
+        BlockDisplay core = displays ? createCore(startLoc) : null;
+        BlockDisplay[] orbitingBlocks = displays ? createOrbitingBlocks(startLoc) : new BlockDisplay[0];
 
-        startFireballMovement(player, core, orbitingBlocks, startLoc, direction);
+        startFireballMovement(player, settings, core, orbitingBlocks, startLoc, direction);
         sendMessage(player, Component.text("Fire Burst activated!", NamedTextColor.RED));
         return true;
     }
 
     /**
-     * Creates the core armor stand for the fireball.
+     * Creates the core display for the fireball.
      *
      * @param startLoc the starting location
-     * @return the core armor stand
+     * @return the core display
      */
-    private ArmorStand createCore(Location startLoc) {
-        ArmorStand core = (ArmorStand) startLoc.getWorld().spawnEntity(startLoc, EntityType.ARMOR_STAND);
-        core.setVisible(false);
-        core.setGravity(false);
-        core.setInvulnerable(true);
-        core.setMarker(true);
-        core.getEquipment().setHelmet(new ItemStack(Material.MAGMA_BLOCK));
-        return core;
+    private BlockDisplay createCore(Location startLoc) {
+        return plugin.getDisplayPool().acquire(startLoc, Material.MAGMA_BLOCK.createBlockData(), CORE_SCALE);
     }
 
     /**
-     * Creates orbiting armor stands with different block types.
+     * Creates orbiting displays with different block types.
      *
      * @param startLoc the starting location
-     * @return array of orbiting armor stands
+     * @return array of orbiting displays
      */
-    private ArmorStand[] createOrbitingBlocks(Location startLoc) {
+    private BlockDisplay[] createOrbitingBlocks(Location startLoc) {
         Material[] blocks = {Material.NETHERRACK, Material.BLACKSTONE, Material.COAL_BLOCK};
-        ArmorStand[] orbitingBlocks = new ArmorStand[3];
+        BlockDisplay[] orbitingBlocks = new BlockDisplay[3];
         for (int i = 0; i < 3; i++) {
-            ArmorStand block = (ArmorStand) startLoc.getWorld().spawnEntity(startLoc, EntityType.ARMOR_STAND);
-            block.setVisible(false);
-            block.setGravity(false);
-            block.setInvulnerable(true);
-            block.setMarker(true);
-            block.getEquipment().setHelmet(new ItemStack(blocks[i]));
-            orbitingBlocks[i] = block;
+            orbitingBlocks[i] = plugin.getDisplayPool().acquire(startLoc, blocks[i].createBlockData(), ORBIT_SCALE);
         }
         return orbitingBlocks;
     }
@@ -80,61 +74,16 @@ public class FireBurstAbility implements Ability {
     /**
      * Starts the fireball movement and particle effects.
      *
-     * @param player the player activating the ability
-     * @param core the core armor stand
-     * @param orbitingBlocks the orbiting armor stands
+     * @param player the player who launched the fireball
+     * @param settings the ability settings
+     * @param core the core display, or null when displays are unavailable
+     * @param orbitingBlocks the orbiting displays
      * @param startLoc the starting location
      * @param direction the movement direction
      */
-    private void startFireballMovement(Player player, ArmorStand core, ArmorStand[] orbitingBlocks, Location startLoc, Vector direction) {
-        new BukkitRunnable() {
-            int ticks = 0;
-            double angle = 0;
-            Location currentLoc = startLoc.clone();
-
-            @Override
-            public void run() {
-                if (ticks >= MAX_TICKS || currentLoc.getBlock().getType().isSolid()) {
-                    createExplosion(currentLoc);
-                    core.remove();
-                    for (ArmorStand block : orbitingBlocks) {
-                        block.remove();
-                    }
-                    cancel();
-                    return;
-                }
-
-                updateFireballPosition(currentLoc, direction, core, orbitingBlocks, angle);
-                spawnFireballParticles(currentLoc);
-                angle += 20;
-                ticks++;
-            }
-
-            private void createExplosion(Location loc) {
-                loc.getWorld().createExplosion(loc, EXPLOSION_POWER, false, false);
-                loc.getWorld().spawnParticle(Particle.EXPLOSION, loc, 5, 0.5, 0.5, 0.5);
-                loc.getWorld().spawnParticle(Particle.FLAME, loc, 50, 1, 1, 1, 0.1);
-            }
-
-            private void updateFireballPosition(Location loc, Vector direction, ArmorStand core, ArmorStand[] orbitingBlocks, double angle) {
-                loc.add(direction.clone().multiply(MOVE_SPEED));
-                core.teleport(loc);
-                for (int i = 0; i < 3; i++) {
-                    double currentAngle = angle + (i * 120);
-                    double radians = Math.toRadians(currentAngle);
-                    double x = Math.cos(radians) * 0.6;
-                    double z = Math.sin(radians) * 0.6;
-                    Location blockLoc = loc.clone().add(x, -1.5, z);
-                    orbitingBlocks[i].teleport(blockLoc);
-                }
-            }
-
-            private void spawnFireballParticles(Location loc) {
-                loc.getWorld().spawnParticle(Particle.FLAME, loc, 10, 0.3, 0.3, 0.3, 0.02);
-                loc.getWorld().spawnParticle(Particle.SMOKE, loc, 5, 0.2, 0.2, 0.2, 0.01);
-                loc.getWorld().spawnParticle(Particle.LAVA, loc, 2, 0.2, 0.2, 0.2);
-            }
-        }.runTaskTimer(plugin, 0, 1);
+    private void startFireballMovement(Player player, AbilitySettings settings, BlockDisplay core, BlockDisplay[] orbitingBlocks, Location startLoc, Vector direction) {
+        plugin.getEffectEngine().register(new FireballEffect(plugin.getParticleDispatcher(), plugin.getDisplayPool(), plugin.getExplosionBatcher(),
+                player, settings, core, orbitingBlocks, startLoc, direction));
     }
 
     /**
@@ -149,11 +98,135 @@ public class FireBurstAbility implements Ability {
 
     @Override
     public String getName() {
-        return plugin.getConfig().getString("stones.fire.ability_name", "Fire Burst");
+        return plugin.getSettingsManager().get(StoneType.FIRE).getName();
     }
 
     @Override
     public long getCooldown() {
-        return plugin.getConfig().getLong("stones.fire.cooldown", DEFAULT_COOLDOWN / 1000) * 1000;
+        return plugin.getSettingsManager().get(StoneType.FIRE).getCooldown();
+    }
+
+    /**
+     * Moves the fireball and its orbiting blocks until it hits a solid block or burns out.
+     * The displays are moved every few ticks to where the fireball will be when their
+     * interpolation ends, and the client smooths the motion in between.
+     */
+    private static final class FireballEffect implements Effect {
+        private final ParticleDispatcher dispatcher;
+        private final ParticleViewers viewers;
+        private final DisplayPool displayPool;
+        private final ExplosionBatcher explosions;
+        private final Player caster;
+        private final AbilitySettings settings;
+        private final BlockDisplay core;
+        private final BlockDisplay[] orbitingBlocks;
+        private final Location currentLoc;
+        private final Location targetLoc;
+        private final Location blockLoc;
+        private final Shape circle;
+        private final Vector step;
+        private int ticks;
+        private int lastDisplayUpdate;
+        private double angle;
+
+        private FireballEffect(ParticleDispatcher dispatcher, DisplayPool displayPool, ExplosionBatcher explosions, Player caster,
+                               AbilitySettings settings, BlockDisplay core, BlockDisplay[] orbitingBlocks, Location startLoc, Vector direction) {
+            this.dispatcher = dispatcher;
+            this.viewers = new ParticleViewers();
+            this.displayPool = displayPool;
+            this.explosions = explosions;
+            this.caster = caster;
+            this.settings = settings;
+            this.core = core;
+            this.orbitingBlocks = orbitingBlocks;
+            this.currentLoc = startLoc.clone();
+            this.targetLoc = startLoc.clone();
+            this.blockLoc = startLoc.clone();
+            this.circle = Shape.circle();
+            this.step = direction.clone().multiply(settings.getSpeed());
+        }
+
+        @Override
+        public boolean tick() {
+            if (ticks >= settings.getLifetime() || currentLoc.getBlock().getType().isSolid()) {
+                createExplosion(currentLoc);
+                return false;
+            }
+
+            currentLoc.add(step);
+            angle += ORBIT_DEGREES_PER_TICK;
+            ticks++;
+            return true;
+        }
+
+        @Override
+        public void render() {
+            int interval = displayPool.getUpdateInterval();
+            if (core != null && ticks - lastDisplayUpdate >= interval) {
+                lastDisplayUpdate = ticks;
+                updateFireballPosition(interval);
+            }
+            if (dispatcher.collect(currentLoc, viewers)) {
+                spawnFireballParticles(currentLoc);
+            }
+        }
+
+        @Override
+        public void stop() {
+            if (core != null) {
+                displayPool.release(core);
+            }
+            for (BlockDisplay block : orbitingBlocks) {
+                displayPool.release(block);
+            }
+        }
+
+        @Override
+        public Location location() {
+            return currentLoc;
+        }
+
+        /**
+         * Queues the explosion at the impact location, which also spawns its particles.
+         *
+         * @param loc the impact location
+         */
+        private void createExplosion(Location loc) {
+            explosions.explode(loc, settings.getPower(), caster, StoneType.FIRE);
+        }
+
+        /**
+         * Sends the core and orbiting displays towards where the fireball will be once the
+         * next interpolation finishes.
+         *
+         * @param interval the number of ticks the displays interpolate over
+         */
+        private void updateFireballPosition(int interval) {
+            targetLoc.setX(currentLoc.getX() + step.getX() * interval);
+            targetLoc.setY(currentLoc.getY() + step.getY() * interval);
+            targetLoc.setZ(currentLoc.getZ() + step.getZ() * interval);
+            core.teleport(targetLoc);
+
+            double targetAngle = angle + ORBIT_DEGREES_PER_TICK * interval;
+            for (int i = 0; i < orbitingBlocks.length; i++) {
+                int point = Shape.degreeIndex(targetAngle + (i * 120));
+                blockLoc.setX(targetLoc.getX() + circle.x(point) * settings.getRadius());
+                blockLoc.setY(targetLoc.getY());
+                blockLoc.setZ(targetLoc.getZ() + circle.z(point) * settings.getRadius());
+                orbitingBlocks[i].teleport(blockLoc);
+            }
+        }
+
+        /**
+         * Spawns the trail particles of the fireball.
+         *
+         * @param loc the fireball location
+         */
+        private void spawnFireballParticles(Location loc) {
+            int count = settings.getParticleCount();
+            dispatcher.spawn(viewers, Particle.FLAME, loc.getX(), loc.getY(), loc.getZ(), count, 0.3, 0.3, 0.3, 0.02);
+            dispatcher.spawn(viewers, Particle.SMOKE, loc.getX(), loc.getY(), loc.getZ(), count / 2, 0.2, 0.2, 0.2, 0.01);
+            dispatcher.spawn(viewers, Particle.LAVA, loc.getX(), loc.getY(), loc.getZ(), count / 5, 0.2, 0.2, 0.2, 1);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,31 @@
 package carnage.cAbilityStones.abilities;
 
 import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.effects.Effect;
+import carnage.cAbilityStones.effects.ParticleDispatcher;
+import carnage.cAbilityStones.effects.ParticleViewers;
+import carnage.cAbilityStones.effects.Shape;
+import carnage.cAbilityStones.models.AbilitySettings;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.models.TargetQuery;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Color;
 import org.bukkit.Location;
 import org.bukkit.Particle;
 import org.bukkit.attribute.Attribute;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.List;
 
 /**
  * Implements the Heal Wave ability, healing the player and nearby allies with particle effects.
  */
 public class HealWaveAbility implements Ability {
-    private static final double HEAL_AMOUNT = 4.0;
-    private static final double RANGE = 5.0;
-    private static final int REGEN_DURATION = 100;
-    private static final int REGEN_AMPLIFIER = 1;
-    private static final int PARTICLE_TICKS = 30;
-    private static final double MAX_RADIUS = 6.0;
-    private static final long DEFAULT_COOLDOWN = 12_000L;
-
     private final CAbilityStones plugin;
 
     public HealWaveAbility(CAbilityStones plugin) {
@@ -32,9 +34,10 @@ public class HealWaveAbility implements Ability {
 
     @Override
     public boolean activate(Player player) {
-        healPlayer(player);
-        healNearbyAllies(player);
-        startParticleEffect(player);
+        AbilitySettings settings = plugin.getSettingsManager().get(StoneType.WATER);
+        healPlayer(player, settings);
+        healNearbyAllies(player, settings);
+        startParticleEffect(player, settings);
         sendMessage(player, Component.text("Heal Wave activated!", NamedTextColor.AQUA));
         return true;
     }
@@ -43,72 +46,57 @@ public class HealWaveAbility implements Ability {
      * Heals the activating player.
      *
      * @param player the player to heal
+     * @param settings the ability settings
      */
-    private void healPlayer(Player player) {
+    private void healPlayer(Player player, AbilitySettings settings) {
         double maxHealth = player.getAttribute(Attribute.MAX_HEALTH).getValue();
-        double newHealth = Math.min(player.getHealth() + HEAL_AMOUNT, maxHealth);
+        double newHealth = Math.min(player.getHealth() + settings.getAmount(), maxHealth);
+        plugin.getStatsManager().recordHealing(player, StoneType.WATER, newHealth - player.getHealth());
         player.setHealth(newHealth);
-        player.addPotionEffect(new PotionEffect(PotionEffectType.REGENERATION, REGEN_DURATION, REGEN_AMPLIFIER));
+        player.addPotionEffect(new PotionEffect(PotionEffectType.REGENERATION, settings.getEffectDuration(), settings.getEffectAmplifier()));
     }
 
     /**
      * Heals nearby allied players.
      *
      * @param player the activating player
+     * @param settings the ability settings
+     */
+    private void healNearbyAllies(Player player, AbilitySettings settings) {
+        TargetQuery query = new TargetQuery(settings.getRange(), 0, TargetQuery.PLAYERS, settings.isLineOfSight());
+        plugin.getTargetingPipeline().select(player, query, settings.isAsyncTargeting(),
+                allies -> heal(player, settings, allies));
+    }
+
+    /**
+     * Heals the selected allies and tells them who healed them.
+     *
+     * @param player the activating player
+     * @param settings the ability settings
+     * @param allies the players in range
+     * @return always true, the wave succeeds without allies
      */
-    private void healNearbyAllies(Player player) {
-        player.getNearbyEntities(RANGE, RANGE, RANGE).stream()
-                .filter(entity -> entity instanceof Player)
-                .map(entity -> (Player) entity)
-                .forEach(ally -> {
-                    double allyMaxHealth = ally.getAttribute(Attribute.MAX_HEALTH).getValue();
-                    double allyNewHealth = Math.min(ally.getHealth() + HEAL_AMOUNT, allyMaxHealth);
-                    ally.setHealth(allyNewHealth);
-                    ally.addPotionEffect(new PotionEffect(PotionEffectType.REGENERATION, REGEN_DURATION, REGEN_AMPLIFIER));
-                    sendMessage(ally, Component.text(player.getName() + " healed you!", NamedTextColor.AQUA));
-                });
+    private boolean heal(Player player, AbilitySettings settings, List<LivingEntity> allies) {
+        for (LivingEntity entity : allies) {
+            Player ally = (Player) entity;
+            double allyMaxHealth = ally.getAttribute(Attribute.MAX_HEALTH).getValue();
+            double allyNewHealth = Math.min(ally.getHealth() + settings.getAmount(), allyMaxHealth);
+            plugin.getStatsManager().recordHealing(player, StoneType.WATER, allyNewHealth - ally.getHealth());
+            ally.setHealth(allyNewHealth);
+            ally.addPotionEffect(new PotionEffect(PotionEffectType.REGENERATION, settings.getEffectDuration(), settings.getEffectAmplifier()));
+            sendMessage(ally, Component.text(player.getName() + " healed you!", NamedTextColor.AQUA));
+        }
+        return true;
     }
 
     /**
      * Starts the particle effect for the heal wave.
      *
      * @param player the player to show particles for
+     * @param settings the ability settings
      */
-    private void startParticleEffect(Player player) {
-        new BukkitRunnable() {
-            double radius = 0;
-            int ticks = 0;
-
-            @Override
-            public void run() {
-                if (radius > MAX_RADIUS || ticks >= PARTICLE_TICKS) {
-                    cancel();
-                    return;
-                }
-
-                Location center = player.getLocation().clone().add(0, 0.1, 0);
-                spawnHealParticles(center, radius);
-                radius += 0.2;
-                ticks++;
-            }
-
-            private void spawnHealParticles(Location center, double radius) {
-                for (double angle = 0; angle < 360; angle += 5) {
-                    double radians = Math.toRadians(angle);
-                    double x = center.getX() + Math.cos(radians) * radius;
-                    double z = center.getZ() + Math.sin(radians) * radius;
-                    Location particleLoc = new Location(center.getWorld(), x, center.getY(), z);
-
-                    Particle.DustOptions blueOptions = new Particle.DustOptions(Color.fromRGB(0, 191, 255), 1.5f);
-                    player.getWorld().spawnParticle(Particle.DUST, particleLoc, 1, 0, 0, 0, 0, blueOptions);
-
-                    Particle.DustOptions cyanOptions = new Particle.DustOptions(Color.fromRGB(0, 255, 255), 1.2f);
-                    player.getWorld().spawnParticle(Particle.DUST, particleLoc, 1, 0, 0.05, 0, 0, cyanOptions);
-
-                    player.getWorld().spawnParticle(Particle.BUBBLE, particleLoc, 1, 0, 0.1, 0, 0);
-                }
-            }
-        }.runTaskTimer(plugin, 0, 1);
+    private void startParticleEffect(Player player, AbilitySettings settings) {
+        plugin.getEffectEngine().register(new HealWaveEffect(plugin.getParticleDispatcher(), player, settings));
     }
 
     /**
@@ -123,11 +111,80 @@ public class HealWaveAbility implements Ability {
 
     @Override
     public String getName() {
-        return plugin.getConfig().getString("stones.water.ability_name", "Heal Wave");
+        return plugin.getSettingsManager().get(StoneType.WATER).getName();
     }
 
     @Override
     public long getCooldown() {
-        return plugin.getConfig().getLong("stones.water.cooldown", DEFAULT_COOLDOWN / 1000) * 1000;
+        return plugin.getSettingsManager().get(StoneType.WATER).getCooldown();
+    }
+
+    /**
+     * Expands a ring of water particles around the player.
+     */
+    private static final class HealWaveEffect implements Effect {
+        private static final Particle.DustOptions BLUE_OPTIONS = new Particle.DustOptions(Color.fromRGB(0, 191, 255), 1.5f);
+        private static final Particle.DustOptions CYAN_OPTIONS = new Particle.DustOptions(Color.fromRGB(0, 255, 255), 1.2f);
+
+        private final ParticleDispatcher dispatcher;
+        private final ParticleViewers viewers;
+        private final Player player;
+        private final AbilitySettings settings;
+        private final Shape ring;
+        private final Location position;
+        private double radius;
+        private int ticks;
+
+        private HealWaveEffect(ParticleDispatcher dispatcher, Player player, AbilitySettings settings) {
+            this.dispatcher = dispatcher;
+            this.viewers = new ParticleViewers();
+            this.player = player;
+            this.settings = settings;
+            this.ring = Shape.ring(settings.getParticleCount());
+            this.position = new Location(null, 0, 0, 0);
+            this.radius = -settings.getSpeed();
+        }
+
+        @Override
+        public boolean tick() {
+            radius += settings.getSpeed();
+            ticks++;
+            return player.isOnline() && radius <= settings.getRadius() && ticks <= settings.getLifetime();
+        }
+
+        @Override
+        public void render() {
+            Location center = player.getLocation(position).add(0, 0.1, 0);
+            if (dispatcher.collect(center, viewers)) {
+                spawnHealParticles(center, radius);
+            }
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Entity owner() {
+            return player;
+        }
+
+        /**
+         * Spawns one ring of the wave.
+         *
+         * @param center the centre of the ring
+         * @param radius the ring radius
+         */
+        private void spawnHealParticles(Location center, double radius) {
+            double y = center.getY();
+            for (int i = 0; i < ring.size(); i++) {
+                double x = center.getX() + ring.x(i) * radius;
+                double z = center.getZ() + ring.z(i) * radius;
+
+                dispatcher.spawn(viewers, i, Particle.DUST, x, y, z, 1, 0, 0, 0, 0, BLUE_OPTIONS);
+                dispatcher.spawn(viewers, i, Particle.DUST, x, y, z, 1, 0, 0.05, 0, 0, CYAN_OPTIONS);
+                dispatcher.spawn(viewers, i, Particle.BUBBLE, x, y, z, 1, 0, 0.1, 0, 0, null);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,444 @@
+package carnage.cAbilityStones.abilities;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.effects.Effect;
+import carnage.cAbilityStones.effects.ExplosionBatcher;
+import carnage.cAbilityStones.effects.ParticleDispatcher;
+import carnage.cAbilityStones.effects.ParticleViewers;
+import carnage.cAbilityStones.managers.StatsManager;
+import carnage.cAbilityStones.managers.TargetIndex;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.models.TargetQuery;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Runs the compiled {@link AbilityProgram} configured for a stone type in place of its built-in ability.
+ */
+public class ProgramAbility implements Ability {
+    private final CAbilityStones plugin;
+    private final StoneType type;
+
+    public ProgramAbility(CAbilityStones plugin, StoneType type) {
+        this.plugin = plugin;
+        this.type = type;
+    }
+
+    @Override
+    public boolean activate(Player player) {
+        AbilityProgram program = plugin.getSettingsManager().getProgram(type);
+        if (program == null) {
+            return false;
+        }
+
+        Execution execution = new Execution(plugin.getTargetIndex(), plugin.getParticleDispatcher(), plugin.getExplosionBatcher(),
+                plugin.getStatsManager(), type, player, program);
+        int state = execution.run();
+        if (state == Execution.SUSPENDED) {
+            plugin.getEffectEngine().register(execution);
+        }
+        return state != Execution.ABORTED;
+    }
+
+    @Override
+    public String getName() {
+        return plugin.getSettingsManager().get(type).getName();
+    }
+
+    @Override
+    public long getCooldown() {
+        return plugin.getSettingsManager().get(type).getCooldown();
+    }
+
+    /**
+     * One run of a program. It executes instructions until the program ends or suspends on a wait
+     * or a projectile, and is then ticked by the effect engine until it can continue.
+     * <p>
+     * The origin that selections, explosions and particles use is the caster's position until a
+     * projectile lands, and the impact point after that. While a projectile flies the execution is
+     * bound to its position instead of the caster, so on region-threaded servers the flight and
+     * the steps run on landing, up to the next wait, happen on the region around the projectile.
+     * <p>
+     * Targets count as enemies hit once per selection, when first damaged, debuffed or knocked
+     * back. Targets the program heals first, and the caster, are not counted.
+     */
+    private static final class Execution implements Effect {
+        private static final int FINISHED = 0;
+        private static final int SUSPENDED = 1;
+        private static final int ABORTED = 2;
+
+        private final TargetIndex targetIndex;
+        private final ParticleDispatcher dispatcher;
+        private final ExplosionBatcher explosions;
+        private final StatsManager stats;
+        private final StoneType type;
+        private final Player caster;
+        private final int[] code;
+        private final double[] operands;
+        private final Object[] constants;
+        private final List<LivingEntity> targets;
+        private final List<LivingEntity> found;
+        private final Predicate<LivingEntity> selectFilter;
+        private final Predicate<LivingEntity> chainFilter;
+        private final Location origin;
+        private final Location scratch;
+        private ParticleViewers viewers;
+        private int pc;
+        private int waitTicks;
+        private int kinds;
+        private boolean lineOfSight;
+        private int counted;
+        private Vector step;
+        private int flightTicks;
+        private boolean landed;
+        private Particle trail;
+        private int trailCount;
+
+        private Execution(TargetIndex targetIndex, ParticleDispatcher dispatcher, ExplosionBatcher explosions, StatsManager stats,
+                          StoneType type, Player caster, AbilityProgram program) {
+            this.targetIndex = targetIndex;
+            this.dispatcher = dispatcher;
+            this.explosions = explosions;
+            this.stats = stats;
+            this.type = type;
+            this.caster = caster;
+            this.code = program.code;
+            this.operands = program.operands;
+            this.constants = program.constants;
+            this.targets = new ArrayList<>();
+            this.found = new ArrayList<>(1);
+            this.selectFilter = this::isSelectable;
+            this.chainFilter = entity -> isSelectable(entity) && !targets.contains(entity);
+            this.origin = caster.getLocation();
+            this.scratch = new Location(null, 0, 0, 0);
+            this.kinds = TargetQuery.ALL;
+        }
+
+        @Override
+        public boolean tick() {
+            if (!caster.isOnline()) {
+                return false;
+            }
+            if (step != null) {
+                if (fly()) {
+                    return true;
+                }
+            } else if (waitTicks > 0 && --waitTicks > 0) {
+                return true;
+            }
+            return run() == SUSPENDED;
+        }
+
+        @Override
+        public void render() {
+            if (step != null && trail != null && dispatcher.collect(origin.getWorld(), origin.getX(), origin.getY(), origin.getZ(), viewers())) {
+                dispatcher.spawn(viewers, trail, origin.getX(), origin.getY(), origin.getZ(), trailCount, 0.1, 0.1, 0.1, 0.01);
+            }
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Entity owner() {
+            return step == null ? caster : null;
+        }
+
+        @Override
+        public Location location() {
+            return origin;
+        }
+
+        /**
+         * Executes instructions from the current position.
+         *
+         * @return {@link #FINISHED}, {@link #SUSPENDED} or {@link #ABORTED}
+         */
+        private int run() {
+            if (!landed) {
+                caster.getLocation(origin);
+            }
+            while (pc < code.length) {
+                int opcode = code[pc];
+                int at = code[pc + 1];
+                pc += 2;
+
+                switch (opcode) {
+                    case AbilityProgram.SELF -> {
+                        targets.clear();
+                        targets.add(caster);
+                        counted = 1;
+                    }
+                    case AbilityProgram.SELECT -> select(operands[at], (int) operands[at + 1], (int) operands[at + 2], operands[at + 3] != 0);
+                    case AbilityProgram.CHAIN -> chain((int) operands[at], operands[at + 1]);
+                    case AbilityProgram.REQUIRE_TARGETS -> {
+                        if (targets.isEmpty()) {
+                            int message = (int) operands[at];
+                            if (message >= 0) {
+                                caster.sendMessage((Component) constants[message]);
+                            }
+                            return ABORTED;
+                        }
+                    }
+                    case AbilityProgram.DAMAGE -> damage(operands[at], operands[at + 1]);
+                    case AbilityProgram.HEAL -> heal(operands[at]);
+                    case AbilityProgram.POTION -> {
+                        PotionEffect effect = (PotionEffect) constants[(int) operands[at]];
+                        for (int i = 0; i < targets.size(); i++) {
+                            targets.get(i).addPotionEffect(effect);
+                        }
+                        countHits();
+                    }
+                    case AbilityProgram.KNOCKBACK -> knockback(operands[at], operands[at + 1]);
+                    case AbilityProgram.LAUNCH -> {
+                        Vector direction = caster.getLocation(scratch).getDirection();
+                        direction.setY(operands[at + 1]);
+                        caster.setVelocity(direction.multiply(operands[at]));
+                    }
+                    case AbilityProgram.LIGHTNING -> lightning((int) operands[at]);
+                    case AbilityProgram.EXPLODE -> explosions.explode(origin, operands[at], caster, type);
+                    case AbilityProgram.PARTICLE -> particle(at);
+                    case AbilityProgram.SOUND -> origin.getWorld().playSound(origin, (Sound) constants[(int) operands[at]],
+                            (float) operands[at + 1], (float) operands[at + 2]);
+                    case AbilityProgram.MESSAGE -> caster.sendMessage((Component) constants[(int) operands[at]]);
+                    case AbilityProgram.WAIT -> {
+                        waitTicks = (int) operands[at];
+                        return SUSPENDED;
+                    }
+                    case AbilityProgram.PROJECTILE -> {
+                        launchProjectile(at);
+                        return SUSPENDED;
+                    }
+                    default -> throw new IllegalStateException("Unknown opcode " + opcode);
+                }
+            }
+            return FINISHED;
+        }
+
+        /**
+         * Replaces the targets with the entities around the origin.
+         *
+         * @param range the radius in blocks
+         * @param limit the maximum number of targets, nearest first, or 0 for all
+         * @param kinds the accepted entity kinds
+         * @param lineOfSight whether targets must be visible to the caster
+         */
+        private void select(double range, int limit, int kinds, boolean lineOfSight) {
+            this.kinds = kinds;
+            this.lineOfSight = lineOfSight;
+            targets.clear();
+            counted = 0;
+            if (limit > 0) {
+                targetIndex.findNearest(origin, range, limit, selectFilter, targets);
+            } else {
+                targetIndex.findInRadius(origin, range, selectFilter, targets);
+            }
+        }
+
+        /**
+         * Extends the targets by hopping from the last one to the nearest entity not targeted yet.
+         *
+         * @param hops the maximum number of hops
+         * @param range the hop range in blocks
+         */
+        private void chain(int hops, double range) {
+            for (int hop = 0; hop < hops && !targets.isEmpty(); hop++) {
+                found.clear();
+                targets.get(targets.size() - 1).getLocation(scratch);
+                if (targetIndex.findNearest(scratch, range, 1, chainFilter, found) == 0) {
+                    break;
+                }
+                targets.add(found.get(0));
+            }
+            found.clear();
+        }
+
+        /**
+         * Damages every target, reducing the damage for each later target.
+         *
+         * @param amount the damage to the first target
+         * @param falloff the factor applied per target
+         */
+        private void damage(double amount, double falloff) {
+            double damage = amount;
+            for (int i = 0; i < targets.size(); i++) {
+                LivingEntity target = targets.get(i);
+                double health = target.getHealth();
+                target.damage(damage, caster);
+                stats.recordDamage(caster, type, health - target.getHealth(), target.isDead());
+                damage *= falloff;
+            }
+            countHits();
+        }
+
+        /**
+         * Heals every target, up to its maximum health.
+         *
+         * @param amount the health to restore
+         */
+        private void heal(double amount) {
+            for (int i = 0; i < targets.size(); i++) {
+                LivingEntity target = targets.get(i);
+                AttributeInstance maxHealth = target.getAttribute(Attribute.MAX_HEALTH);
+                if (maxHealth != null && !target.isDead()) {
+                    double health = Math.min(target.getHealth() + amount, maxHealth.getValue());
+                    stats.recordHealing(caster, type, health - target.getHealth());
+                    target.setHealth(health);
+                }
+            }
+            counted = targets.size();
+        }
+
+        /**
+         * Records the targets not counted yet as enemies hit.
+         */
+        private void countHits() {
+            stats.recordHits(caster, type, targets.size() - counted);
+            counted = targets.size();
+        }
+
+        /**
+         * Pushes every target away from the origin.
+         *
+         * @param power the horizontal force
+         * @param lift the vertical velocity
+         */
+        private void knockback(double power, double lift) {
+            for (int i = 0; i < targets.size(); i++) {
+                LivingEntity target = targets.get(i);
+                Location location = target.getLocation(scratch);
+                Vector direction = new Vector(location.getX() - origin.getX(), location.getY() - origin.getY(), location.getZ() - origin.getZ());
+                if (direction.lengthSquared() > 1.0E-6) {
+                    target.setVelocity(direction.normalize().multiply(power).setY(lift));
+                }
+            }
+            countHits();
+        }
+
+        /**
+         * Strikes cosmetic lightning.
+         *
+         * @param at where to strike
+         */
+        private void lightning(int at) {
+            if (at == AbilityProgram.AT_TARGETS) {
+                for (int i = 0; i < targets.size(); i++) {
+                    LivingEntity target = targets.get(i);
+                    target.getWorld().strikeLightningEffect(target.getLocation(scratch));
+                }
+            } else {
+                Location location = at == AbilityProgram.AT_CASTER ? caster.getLocation(scratch) : origin;
+                location.getWorld().strikeLightningEffect(location);
+            }
+        }
+
+        /**
+         * Spawns a particle burst.
+         *
+         * @param at the offset of the instruction's operands
+         */
+        private void particle(int at) {
+            Particle particle = (Particle) constants[(int) operands[at]];
+            int data = (int) operands[at + 1];
+            Object options = data >= 0 ? constants[data] : null;
+            int count = (int) operands[at + 2];
+            double spread = operands[at + 3];
+            double speed = operands[at + 4];
+            int position = (int) operands[at + 5];
+
+            if (position == AbilityProgram.AT_TARGETS) {
+                for (int i = 0; i < targets.size(); i++) {
+                    spawnAt(targets.get(i).getLocation(scratch).add(0, 1, 0), particle, count, spread, speed, options);
+                }
+            } else {
+                spawnAt(position == AbilityProgram.AT_CASTER ? caster.getLocation(scratch).add(0, 1, 0) : origin,
+                        particle, count, spread, speed, options);
+            }
+        }
+
+        /**
+         * Sends a particle burst at one position to the players that can see it.
+         *
+         * @param location the position
+         * @param particle the particle
+         * @param count the number of particles
+         * @param spread the random offset on each axis
+         * @param speed the particle speed
+         * @param data the particle data, or null
+         */
+        private void spawnAt(Location location, Particle particle, int count, double spread, double speed, Object data) {
+            if (dispatcher.collect(location.getWorld(), location.getX(), location.getY(), location.getZ(), viewers())) {
+                dispatcher.spawn(viewers, 0, particle, location.getX(), location.getY(), location.getZ(), count, spread, spread, spread, speed, data);
+            }
+        }
+
+        /**
+         * Starts a projectile from the caster's eyes along their view.
+         *
+         * @param at the offset of the instruction's operands
+         */
+        private void launchProjectile(int at) {
+            Location eye = caster.getEyeLocation();
+            origin.setWorld(eye.getWorld());
+            origin.set(eye.getX(), eye.getY(), eye.getZ());
+            step = eye.getDirection().multiply(operands[at]);
+            flightTicks = (int) operands[at + 1];
+            int trailIndex = (int) operands[at + 2];
+            trail = trailIndex >= 0 ? (Particle) constants[trailIndex] : null;
+            trailCount = (int) operands[at + 3];
+        }
+
+        /**
+         * Moves the projectile one step.
+         *
+         * @return true while it is still flying, false once it hit a block or burned out
+         */
+        private boolean fly() {
+            if (flightTicks-- <= 0 || origin.getBlock().getType().isSolid()) {
+                step = null;
+                landed = true;
+                return false;
+            }
+            origin.add(step);
+            return true;
+        }
+
+        /**
+         * Checks if an entity may be selected as a target.
+         *
+         * @param entity the entity to check
+         * @return true if it is not the caster, of an accepted kind and visible when required
+         */
+        private boolean isSelectable(LivingEntity entity) {
+            return entity != caster
+                    && (kinds & TargetQuery.kindOf(entity)) != 0
+                    && (!lineOfSight || caster.hasLineOfSight(entity));
+        }
+
+        /**
+         * Gets the viewer set, creating it on first use.
+         *
+         * @return the viewer set
+         */
+        private ParticleViewers viewers() {
+            if (viewers == null) {
+                viewers = new ParticleViewers();
+            }
+            return viewers;
+        }
+    }
+}
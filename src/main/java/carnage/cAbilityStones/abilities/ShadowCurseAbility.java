@@ -1,6 +1,13 @@
 package carnage.cAbilityStones.abilities;
 
 import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.effects.Effect;
+import carnage.cAbilityStones.effects.ParticleDispatcher;
+import carnage.cAbilityStones.effects.ParticleViewers;
+import carnage.cAbilityStones.effects.Shape;
+import carnage.cAbilityStones.models.AbilitySettings;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.models.TargetQuery;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Color;
@@ -11,18 +18,14 @@ import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Implements the Shadow Curse ability, applying debuffs to nearby enemies with particle effects.
  */
 public class ShadowCurseAbility implements Ability {
-    private static final double RANGE = 4.0;
-    private static final int EFFECT_DURATION = 60;
-    private static final int EFFECT_AMPLIFIER = 1;
-    private static final int PARTICLE_TICKS = 60;
-    private static final long DEFAULT_COOLDOWN = 15_000L;
-
     private final CAbilityStones plugin;
 
     public ShadowCurseAbility(CAbilityStones plugin) {
@@ -31,78 +34,54 @@ public class ShadowCurseAbility implements Ability {
 
     @Override
     public boolean activate(Player player) {
-        int affected = applyDebuffs(player);
-        if (affected == 0) {
+        AbilitySettings settings = plugin.getSettingsManager().get(StoneType.DARKNESS);
+        TargetQuery query = new TargetQuery(settings.getRange(), 0, TargetQuery.ALL, settings.isLineOfSight());
+        return plugin.getTargetingPipeline().select(player, query, settings.isAsyncTargeting(),
+                targets -> curse(player, settings, targets));
+    }
+
+    /**
+     * Curses the selected enemies and starts the particle effect.
+     *
+     * @param player the player activating the ability
+     * @param settings the ability settings
+     * @param targets the enemies in range
+     * @return true if at least one enemy was cursed
+     */
+    private boolean curse(Player player, AbilitySettings settings, List<LivingEntity> targets) {
+        if (targets.isEmpty()) {
             sendMessage(player, Component.text("No enemies nearby!", NamedTextColor.RED));
             return false;
         }
 
-        startParticleEffect(player);
-        sendMessage(player, Component.text("Shadow Curse affected " + affected + " enemies!", NamedTextColor.DARK_PURPLE));
+        applyDebuffs(targets, settings);
+        plugin.getStatsManager().recordHits(player, StoneType.DARKNESS, targets.size());
+        startParticleEffect(player, settings);
+        sendMessage(player, Component.text("Shadow Curse affected " + targets.size() + " enemies!", NamedTextColor.DARK_PURPLE));
         return true;
     }
 
     /**
-     * Applies blindness and slowness debuffs to nearby enemies.
+     * Applies blindness and slowness debuffs to enemies.
      *
-     * @param player the player activating the ability
-     * @return the number of affected enemies
+     * @param targets the enemies to debuff
+     * @param settings the ability settings
      */
-    private int applyDebuffs(Player player) {
-        int affected = 0;
-        for (Entity entity : player.getNearbyEntities(RANGE, RANGE, RANGE)) {
-            if (entity instanceof LivingEntity && !(entity instanceof Player && entity.equals(player))) {
-                LivingEntity target = (LivingEntity) entity;
-                target.addPotionEffect(new PotionEffect(PotionEffectType.BLINDNESS, EFFECT_DURATION, EFFECT_AMPLIFIER));
-                target.addPotionEffect(new PotionEffect(PotionEffectType.SLOWNESS, EFFECT_DURATION, EFFECT_AMPLIFIER));
-                affected++;
-            }
+    private void applyDebuffs(List<LivingEntity> targets, AbilitySettings settings) {
+        for (LivingEntity target : targets) {
+            target.addPotionEffect(new PotionEffect(PotionEffectType.BLINDNESS, settings.getEffectDuration(), settings.getEffectAmplifier()));
+            target.addPotionEffect(new PotionEffect(PotionEffectType.SLOWNESS, settings.getEffectDuration(), settings.getEffectAmplifier()));
         }
-        return affected;
     }
 
     /**
      * Starts the particle effect for the shadow curse.
      *
      * @param player the player to show particles for
+     * @param settings the ability settings
      */
-    private void startParticleEffect(Player player) {
-        new BukkitRunnable() {
-            int ticks = 0;
-
-            @Override
-            public void run() {
-                if (ticks >= PARTICLE_TICKS) {
-                    cancel();
-                    return;
-                }
-
-                Location center = player.getLocation().clone().add(0, 3, 0);
-                spawnCurseParticles(center);
-                ticks++;
-            }
-
-            private void spawnCurseParticles(Location center) {
-                for (int i = 0; i < 8; i++) {
-                    double angle = Math.random() * Math.PI * 2;
-                    double radius = Math.random() * 4;
-                    double x = center.getX() + Math.cos(angle) * radius;
-                    double z = center.getZ() + Math.sin(angle) * radius;
-                    Location spikeLoc = new Location(center.getWorld(), x, center.getY(), z);
-
-                    for (double y = 0; y < 3; y += 0.2) {
-                        Location particleLoc = spikeLoc.clone().subtract(0, y, 0);
-                        Particle.DustOptions dustOptions = new Particle.DustOptions(Color.fromRGB(75, 0, 130), 1.5f);
-                        player.getWorld().spawnParticle(Particle.DUST, particleLoc, 1, 0, 0, 0, 0, dustOptions);
-
-                        if (Math.random() > 0.5) {
-                            Particle.DustOptions darkDustOptions = new Particle.DustOptions(Color.fromRGB(50, 50, 50), 1.2f);
-                            player.getWorld().spawnParticle(Particle.DUST, particleLoc, 1, 0.05, 0, 0.05, 0, darkDustOptions);
-                        }
-                    }
-                }
-            }
-        }.runTaskTimer(plugin, 0, 2);
+    private void startParticleEffect(Player player, AbilitySettings settings) {
+        plugin.getEffectEngine().register(new ShadowCurseEffect(plugin.getParticleDispatcher(), player, settings));
     }
 
     /**
@@ -117,11 +96,97 @@ public class ShadowCurseAbility implements Ability {
 
     @Override
     public String getName() {
-        return plugin.getConfig().getString("stones.darkness.ability_name", "Shadow Curse");
+        return plugin.getSettingsManager().get(StoneType.DARKNESS).getName();
     }
 
     @Override
     public long getCooldown() {
-        return plugin.getConfig().getLong("stones.darkness.cooldown", DEFAULT_COOLDOWN / 1000) * 1000;
+        return plugin.getSettingsManager().get(StoneType.DARKNESS).getCooldown();
+    }
+
+    /**
+     * Rains shadow spikes around the player every other tick.
+     */
+    private static final class ShadowCurseEffect implements Effect {
+        private static final int BURST_PERIOD = 2;
+        private static final Shape SPIKE = Shape.spike(3.0, 0.2);
+        private static final Particle.DustOptions DUST_OPTIONS = new Particle.DustOptions(Color.fromRGB(75, 0, 130), 1.5f);
+        private static final Particle.DustOptions DARK_DUST_OPTIONS = new Particle.DustOptions(Color.fromRGB(50, 50, 50), 1.2f);
+
+        private final ParticleDispatcher dispatcher;
+        private final ParticleViewers viewers;
+        private final Player player;
+        private final AbilitySettings settings;
+        private final Shape scatter;
+        private final Location position;
+        private int ticks;
+        private boolean burstPending;
+
+        private ShadowCurseEffect(ParticleDispatcher dispatcher, Player player, AbilitySettings settings) {
+            this.dispatcher = dispatcher;
+            this.viewers = new ParticleViewers();
+            this.player = player;
+            this.settings = settings;
+            this.scatter = Shape.scatter();
+            this.position = new Location(null, 0, 0, 0);
+        }
+
+        @Override
+        public boolean tick() {
+            if (ticks >= settings.getLifetime() * BURST_PERIOD || !player.isOnline()) {
+                return false;
+            }
+
+            if (ticks % BURST_PERIOD == 0) {
+                burstPending = true;
+            }
+            ticks++;
+            return true;
+        }
+
+        @Override
+        public void render() {
+            if (!burstPending) {
+                return;
+            }
+
+            burstPending = false;
+            Location center = player.getLocation(position).add(0, 3, 0);
+            if (dispatcher.collect(center, viewers)) {
+                spawnCurseParticles(center);
+            }
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Entity owner() {
+            return player;
+        }
+
+        /**
+         * Spawns one burst of shadow spikes.
+         *
+         * @param center the point above the player the spikes hang from
+         */
+        private void spawnCurseParticles(Location center) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < settings.getParticleCount(); i++) {
+                int point = random.nextInt(scatter.size());
+                double x = center.getX() + scatter.x(point) * settings.getRadius();
+                double z = center.getZ() + scatter.z(point) * settings.getRadius();
+
+                for (int sample = 0; sample < SPIKE.size(); sample++) {
+                    double particleY = center.getY() + SPIKE.y(sample);
+                    dispatcher.spawn(viewers, sample, Particle.DUST, x, particleY, z, 1, 0, 0, 0, 0, DUST_OPTIONS);
+
+                    if (random.nextBoolean()) {
+                        dispatcher.spawn(viewers, sample, Particle.DUST, x, particleY, z, 1, 0.05, 0, 0.05, 0, DARK_DUST_OPTIONS);
+                    }
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
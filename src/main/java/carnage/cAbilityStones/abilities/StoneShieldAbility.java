@@ -1,32 +1,36 @@
 package carnage.cAbilityStones.abilities;
 
 import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.effects.DisplayPool;
+import carnage.cAbilityStones.effects.Effect;
+import carnage.cAbilityStones.effects.ParticleDispatcher;
+import carnage.cAbilityStones.effects.ParticleViewers;
+import carnage.cAbilityStones.effects.Shape;
+import carnage.cAbilityStones.models.AbilitySettings;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.models.TargetQuery;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.entity.ArmorStand;
+import org.bukkit.Particle;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.BlockDisplay;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
+import java.util.List;
+
 /**
  * Implements the Stone Shield ability, granting resistance and knocking back enemies with orbiting stone particles.
  */
 public class StoneShieldAbility implements Ability {
-    private static final double KNOCKBACK_RANGE = 3.0;
-    private static final double KNOCKBACK_FORCE = 0.8;
-    private static final double KNOCKBACK_Y = 0.3;
-    private static final int RESISTANCE_DURATION = 100;
-    private static final int RESISTANCE_AMPLIFIER = 2;
-    private static final int PARTICLE_TICKS = 100;
-    private static final long DEFAULT_COOLDOWN = 15_000L;
+    private static final float STONE_SCALE = 0.4f;
+    private static final double STONE_HEIGHT = 1.2;
 
     private final CAbilityStones plugin;
 
@@ -36,9 +40,10 @@ public class StoneShieldAbility implements Ability {
 
     @Override
     public boolean activate(Player player) {
-        applyResistance(player);
-        knockbackNearbyEnemies(player);
-        startParticleEffect(player);
+        AbilitySettings settings = plugin.getSettingsManager().get(StoneType.EARTH);
+        applyResistance(player, settings);
+        knockbackNearbyEnemies(player, settings);
+        startParticleEffect(player, settings);
         sendMessage(player, Component.text("Stone Shield activated!", NamedTextColor.GREEN));
         return true;
     }
@@ -47,85 +52,70 @@ public class StoneShieldAbility implements Ability {
      * Applies resistance effect to the player.
      *
      * @param player the player to receive the effect
+     * @param settings the ability settings
      */
-    private void applyResistance(Player player) {
-        player.addPotionEffect(new PotionEffect(PotionEffectType.RESISTANCE, RESISTANCE_DURATION, RESISTANCE_AMPLIFIER));
+    private void applyResistance(Player player, AbilitySettings settings) {
+        player.addPotionEffect(new PotionEffect(PotionEffectType.RESISTANCE, settings.getEffectDuration(), settings.getEffectAmplifier()));
     }
 
     /**
      * Knocks back nearby enemies.
      *
      * @param player the player activating the ability
+     * @param settings the ability settings
      */
-    private void knockbackNearbyEnemies(Player player) {
-        for (Entity entity : player.getNearbyEntities(KNOCKBACK_RANGE, KNOCKBACK_RANGE, KNOCKBACK_RANGE)) {
-            if (entity instanceof LivingEntity && !(entity instanceof Player && entity.equals(player))) {
-                Vector direction = entity.getLocation().toVector().subtract(player.getLocation().toVector()).normalize();
-                entity.setVelocity(direction.multiply(KNOCKBACK_FORCE).setY(KNOCKBACK_Y));
-            }
+    private void knockbackNearbyEnemies(Player player, AbilitySettings settings) {
+        TargetQuery query = new TargetQuery(settings.getRange(), 0, TargetQuery.ALL, settings.isLineOfSight());
+        plugin.getTargetingPipeline().select(player, query, settings.isAsyncTargeting(),
+                targets -> knockback(player, settings, targets));
+    }
+
+    /**
+     * Pushes the selected enemies away from the player.
+     *
+     * @param player the player activating the ability
+     * @param settings the ability settings
+     * @param targets the enemies in range
+     * @return always true, the shield succeeds without targets
+     */
+    private boolean knockback(Player player, AbilitySettings settings, List<LivingEntity> targets) {
+        Location center = player.getLocation();
+        for (LivingEntity entity : targets) {
+            Vector direction = entity.getLocation().toVector().subtract(center.toVector()).normalize();
+            entity.setVelocity(direction.multiply(settings.getPower()).setY(settings.getLift()));
         }
+        plugin.getStatsManager().recordHits(player, StoneType.EARTH, targets.size());
+        return true;
     }
 
     /**
-     * Starts the particle effect with orbiting stone heads.
+     * Starts the particle effect with orbiting stones.
      *
      * @param player the player to show particles for
+     * @param settings the ability settings
      */
-    private void startParticleEffect(Player player) {
-        ArmorStand[] stoneHeads = createStoneHeads(player.getLocation());
-        new BukkitRunnable() {
-            int ticks = 0;
-            double angle = 0;
-
-            @Override
-            public void run() {
-                if (ticks >= PARTICLE_TICKS) {
-                    for (ArmorStand head : stoneHeads) {
-                        head.remove();
-                    }
-                    cancel();
-                    return;
-                }
-
-                Location playerLoc = player.getLocation().clone().add(0, 0.5, 0);
-                updateStoneHeadPositions(playerLoc, stoneHeads, angle);
-                angle += 5;
-                ticks++;
-            }
-
-            private void updateStoneHeadPositions(Location playerLoc, ArmorStand[] stoneHeads, double angle) {
-                for (int i = 0; i < 3; i++) {
-                    double currentAngle = angle + (i * 120);
-                    double radians = Math.toRadians(currentAngle);
-                    double x = Math.cos(radians) * 1.5;
-                    double z = Math.sin(radians) * 1.5;
-                    Location headLoc = playerLoc.clone().add(x, 0, z);
-                    headLoc.setYaw((float) currentAngle);
-                    stoneHeads[i].teleport(headLoc);
-                }
-            }
-        }.runTaskTimer(plugin, 0, 1);
+    private void startParticleEffect(Player player, AbilitySettings settings) {
+        BlockData stone = Material.STONE.createBlockData();
+        BlockDisplay[] stones = plugin.getDisplayPool().isEnabled()
+                ? createStones(player.getLocation().add(0, STONE_HEIGHT, 0), stone, settings.getParticleCount())
+                : new BlockDisplay[0];
+        plugin.getEffectEngine().register(new StoneShieldEffect(plugin.getParticleDispatcher(), player, plugin.getDisplayPool(), settings, stone, stones));
     }
 
     /**
-     * Creates armor stands with stone helmets for the particle effect.
+     * Creates stone block displays for the particle effect.
      *
      * @param location the starting location
-     * @return array of armor stands
+     * @param stone the block to display
+     * @param count the number of displays
+     * @return array of displays
      */
-    private ArmorStand[] createStoneHeads(Location location) {
-        ArmorStand[] stoneHeads = new ArmorStand[3];
-        for (int i = 0; i < 3; i++) {
-            ArmorStand head = (ArmorStand) location.getWorld().spawnEntity(location, EntityType.ARMOR_STAND);
-            head.setVisible(false);
-            head.setGravity(false);
-            head.setInvulnerable(true);
-            head.setMarker(true);
-            head.setSmall(true);
-            head.getEquipment().setHelmet(new ItemStack(Material.STONE));
-            stoneHeads[i] = head;
+    private BlockDisplay[] createStones(Location location, BlockData stone, int count) {
+        BlockDisplay[] stones = new BlockDisplay[count];
+        for (int i = 0; i < count; i++) {
+            stones[i] = plugin.getDisplayPool().acquire(location, stone, STONE_SCALE);
         }
-        return stoneHeads;
+        return stones;
     }
 
     /**
@@ -140,11 +130,126 @@ public class StoneShieldAbility implements Ability {
 
     @Override
     public String getName() {
-        return plugin.getConfig().getString("stones.earth.ability_name", "Stone Shield");
+        return plugin.getSettingsManager().get(StoneType.EARTH).getName();
     }
 
     @Override
     public long getCooldown() {
-        return plugin.getConfig().getLong("stones.earth.cooldown", DEFAULT_COOLDOWN / 1000) * 1000;
+        return plugin.getSettingsManager().get(StoneType.EARTH).getCooldown();
+    }
+
+    /**
+     * Spins the stones around the player for the duration of the shield. The displays are moved
+     * every few ticks to their next orbit position and the client smooths the motion in between.
+     * Without displays, the stones are drawn as block particles every tick instead.
+     */
+    private static final class StoneShieldEffect implements Effect {
+        private final ParticleDispatcher dispatcher;
+        private final ParticleViewers viewers;
+        private final Player player;
+        private final DisplayPool displayPool;
+        private final AbilitySettings settings;
+        private final BlockData stone;
+        private final BlockDisplay[] stones;
+        private final Shape circle;
+        private final Location position;
+        private final Location stonePosition;
+        private int ticks;
+        private int lastDisplayUpdate;
+        private double angle;
+
+        private StoneShieldEffect(ParticleDispatcher dispatcher, Player player, DisplayPool displayPool, AbilitySettings settings, BlockData stone, BlockDisplay[] stones) {
+            this.dispatcher = dispatcher;
+            this.viewers = new ParticleViewers();
+            this.player = player;
+            this.displayPool = displayPool;
+            this.settings = settings;
+            this.stone = stone;
+            this.stones = stones;
+            this.circle = Shape.circle();
+            this.position = new Location(null, 0, 0, 0);
+            this.stonePosition = new Location(null, 0, 0, 0);
+        }
+
+        @Override
+        public boolean tick() {
+            if (ticks >= settings.getLifetime() || !player.isOnline()) {
+                return false;
+            }
+
+            angle = ticks * settings.getSpeed();
+            ticks++;
+            return true;
+        }
+
+        @Override
+        public void render() {
+            if (stones.length == 0) {
+                renderParticles();
+                return;
+            }
+
+            int interval = displayPool.getUpdateInterval();
+            if (ticks - lastDisplayUpdate < interval) {
+                return;
+            }
+
+            lastDisplayUpdate = ticks;
+            Location playerLoc = player.getLocation(position).add(0, STONE_HEIGHT, 0);
+            updateStonePositions(playerLoc, angle + settings.getSpeed() * interval);
+        }
+
+        @Override
+        public void stop() {
+            for (BlockDisplay stone : stones) {
+                displayPool.release(stone);
+            }
+        }
+
+        @Override
+        public Entity owner() {
+            return player;
+        }
+
+        /**
+         * Draws the orbiting stones as block particles at their current positions.
+         */
+        private void renderParticles() {
+            Location playerLoc = player.getLocation(position).add(0, STONE_HEIGHT, 0);
+            if (!dispatcher.collect(playerLoc, viewers)) {
+                return;
+            }
+
+            int count = settings.getParticleCount();
+            double spacing = 360.0 / count;
+            for (int i = 0; i < count; i++) {
+                int point = Shape.degreeIndex(angle + (i * spacing));
+                dispatcher.spawn(viewers, i, Particle.BLOCK,
+                        playerLoc.getX() + circle.x(point) * settings.getRadius(),
+                        playerLoc.getY(),
+                        playerLoc.getZ() + circle.z(point) * settings.getRadius(),
+                        2, 0.1, 0.1, 0.1, 0, stone);
+            }
+        }
+
+        /**
+         * Moves the stones to their orbit positions at an angle.
+         *
+         * @param playerLoc the orbit centre
+         * @param baseAngle the angle of the first stone in degrees
+         */
+        private void updateStonePositions(Location playerLoc, double baseAngle) {
+            double spacing = 360.0 / stones.length;
+            for (int i = 0; i < stones.length; i++) {
+                double currentAngle = baseAngle + (i * spacing);
+                int point = Shape.degreeIndex(currentAngle);
+                stonePosition.setWorld(playerLoc.getWorld());
+                stonePosition.setX(playerLoc.getX() + circle.x(point) * settings.getRadius());
+                stonePosition.setY(playerLoc.getY());
+                stonePosition.setZ(playerLoc.getZ() + circle.z(point) * settings.getRadius());
+                stonePosition.setYaw((float) currentAngle);
+                stones[i].teleport(stonePosition);
+            }
+        }
     }
-}
\ No newline at end of file
+}
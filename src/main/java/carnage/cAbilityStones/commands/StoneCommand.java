@@ -1,7 +1,10 @@
 package carnage.cAbilityStones.commands;
 
 import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.managers.MetricsManager;
 import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.models.UsageStat;
+import carnage.cAbilityStones.storage.StatsDatabase;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.command.Command;
@@ -17,11 +20,14 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * Handles the /stone command for giving ability stones and reloading configuration.
+ * Handles the /stone command for giving ability stones, reloading configuration and showing statistics
+ * and leaderboards.
  */
 public class StoneCommand implements CommandExecutor, TabCompleter {
     private static final String PERMISSION_GIVE = "abilitystones.give";
     private static final String PERMISSION_RELOAD = "abilitystones.reload";
+    private static final String PERMISSION_STATS = "abilitystones.stats";
+    private static final String PERMISSION_TOP = "abilitystones.top";
 
     private final CAbilityStones plugin;
 
@@ -44,6 +50,14 @@ public class StoneCommand implements CommandExecutor, TabCompleter {
             return handleGiveCommand(sender, args);
         }
 
+        if (args[0].equalsIgnoreCase("stats")) {
+            return handleStats(sender);
+        }
+
+        if (args[0].equalsIgnoreCase("top")) {
+            return handleTop(sender, args);
+        }
+
         sendMessage(sender, Component.text("Unknown subcommand! Use /stone for help", NamedTextColor.RED));
         return true;
     }
@@ -57,6 +71,8 @@ public class StoneCommand implements CommandExecutor, TabCompleter {
         sendMessage(sender, Component.text("=== Ability Stones ===", NamedTextColor.GOLD));
         sendMessage(sender, Component.text("/stone give <type> [player] - Give a stone", NamedTextColor.YELLOW));
         sendMessage(sender, Component.text("/stone reload - Reload config", NamedTextColor.YELLOW));
+        sendMessage(sender, Component.text("/stone stats - Show performance statistics", NamedTextColor.YELLOW));
+        sendMessage(sender, Component.text("/stone top [stat] [type] - Show a leaderboard", NamedTextColor.YELLOW));
         sendMessage(sender, Component.text("Types: fire, water, earth, air, lightning, darkness", NamedTextColor.YELLOW));
     }
 
@@ -72,11 +88,88 @@ public class StoneCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        plugin.reloadConfig();
+        plugin.reload();
         sendMessage(sender, Component.text("Config reloaded!", NamedTextColor.GREEN));
         return true;
     }
 
+    /**
+     * Handles the stats subcommand, listing activation counts and timings.
+     *
+     * @param sender the command sender
+     * @return true if the command was handled successfully
+     */
+    private boolean handleStats(CommandSender sender) {
+        if (!sender.hasPermission(PERMISSION_STATS)) {
+            sendMessage(sender, Component.text("No permission!", NamedTextColor.RED));
+            return true;
+        }
+
+        MetricsManager metrics = plugin.getMetricsManager();
+        sendMessage(sender, Component.text("=== Ability Stones Stats ===", NamedTextColor.GOLD));
+        for (StoneType type : StoneType.values()) {
+            sendMessage(sender, Component.text(String.format("%s: %d activated, %d failed, %d on cooldown",
+                    type.name().toLowerCase(), metrics.getActivations(type), metrics.getFailedActivations(type),
+                    metrics.getCooldownRejections(type)), NamedTextColor.YELLOW));
+        }
+        sendMessage(sender, Component.text(String.format("Activation latency: p50 %.1fus, p99 %.1fus",
+                metrics.getActivationLatencyP50Micros(), metrics.getActivationLatencyP99Micros()), NamedTextColor.YELLOW));
+        sendMessage(sender, Component.text(String.format("Effects: %d active, %.1fus per tick",
+                metrics.getActiveEffects(), metrics.getEffectTickMeanMicros()), NamedTextColor.YELLOW));
+        sendMessage(sender, Component.text(String.format("Spawned: %d entities, %d particles, %d attempts rate limited",
+                metrics.getEntitiesSpawned(), metrics.getParticlesSpawned(), metrics.getRateLimited()), NamedTextColor.YELLOW));
+        return true;
+    }
+
+    /**
+     * Handles the top subcommand, showing a leaderboard from the cached rankings.
+     *
+     * @param sender the command sender
+     * @param args the command arguments
+     * @return true if the command was handled successfully
+     */
+    private boolean handleTop(CommandSender sender, String[] args) {
+        if (!sender.hasPermission(PERMISSION_TOP)) {
+            sendMessage(sender, Component.text("No permission!", NamedTextColor.RED));
+            return true;
+        }
+        if (!plugin.getStatsManager().isEnabled()) {
+            sendMessage(sender, Component.text("Usage statistics are disabled!", NamedTextColor.RED));
+            return true;
+        }
+
+        UsageStat stat = args.length >= 2 ? UsageStat.fromColumn(args[1]) : UsageStat.ACTIVATIONS;
+        if (stat == null) {
+            sendMessage(sender, Component.text("Invalid stat! Use: " + Arrays.stream(UsageStat.values())
+                    .map(UsageStat::getColumn).collect(Collectors.joining(", ")), NamedTextColor.RED));
+            return true;
+        }
+        StoneType type = args.length >= 3 ? parseStoneType(args[2]) : null;
+        if (args.length >= 3 && type == null) {
+            sendMessage(sender, Component.text("Invalid stone type! Use: fire, water, earth, air, lightning, darkness", NamedTextColor.RED));
+            return true;
+        }
+
+        List<StatsDatabase.Ranking> rankings = plugin.getStatsManager().getTop(stat, type);
+        if (rankings == null) {
+            sendMessage(sender, Component.text("Leaderboards are still loading, try again shortly.", NamedTextColor.YELLOW));
+            return true;
+        }
+
+        sendMessage(sender, Component.text("=== Top " + stat.getDisplayName()
+                + (type == null ? "" : " (" + type.name().toLowerCase() + ")") + " ===", NamedTextColor.GOLD));
+        if (rankings.isEmpty()) {
+            sendMessage(sender, Component.text("Nothing recorded yet.", NamedTextColor.YELLOW));
+        }
+        for (int i = 0; i < rankings.size(); i++) {
+            StatsDatabase.Ranking ranking = rankings.get(i);
+            double value = ranking.value();
+            String formatted = value == Math.rint(value) ? String.format("%.0f", value) : String.format("%.1f", value);
+            sendMessage(sender, Component.text("#" + (i + 1) + " " + ranking.name() + " - " + formatted, NamedTextColor.YELLOW));
+        }
+        return true;
+    }
+
     /**
      * Handles the give subcommand to provide a stone to a player.
      *
@@ -181,6 +274,12 @@ public class StoneCommand implements CommandExecutor, TabCompleter {
         if (args.length == 1) {
             completions.add("give");
             completions.add("reload");
+            completions.add("stats");
+            completions.add("top");
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("top")) {
+            Arrays.stream(UsageStat.values()).map(UsageStat::getColumn).forEach(completions::add);
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("top")) {
+            Arrays.stream(StoneType.values()).map(type -> type.name().toLowerCase()).forEach(completions::add);
         } else if (args.length == 2 && args[0].equalsIgnoreCase("give")) {
             return Arrays.stream(StoneType.values())
                     .map(type -> type.name().toLowerCase())
@@ -0,0 +1,153 @@
+package carnage.cAbilityStones.effects;
+
+import carnage.cAbilityStones.CAbilityStones;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.util.Transformation;
+import org.joml.AxisAngle4f;
+import org.joml.Vector3f;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Pool of block display entities reused by effect visuals.
+ * <p>
+ * Displays are moved with a teleport duration so the client interpolates between updates,
+ * which lets effects update them only every few ticks. Released displays are hidden and kept
+ * per world for the next cast instead of being removed. Pooled displays are never persistent,
+ * so they disappear with their chunk and are skipped once invalid.
+ * <p>
+ * The pool is disabled on region-threaded servers, where displays cannot be teleported
+ * synchronously across regions; effects then fall back to particles.
+ */
+public class DisplayPool {
+    private final CAbilityStones plugin;
+    private final Map<UUID, ArrayDeque<BlockDisplay>> idle;
+    private final boolean enabled;
+    private int maxIdlePerWorld;
+    private int updateInterval;
+
+    public DisplayPool(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.idle = new HashMap<>();
+        this.enabled = !plugin.getSchedulerAdapter().isRegionThreaded();
+        reload();
+    }
+
+    /**
+     * Reads the pool size and update interval from the configuration.
+     */
+    public void reload() {
+        maxIdlePerWorld = Math.max(0, plugin.getConfig().getInt("effects.display_pool_size", 64));
+        updateInterval = Math.max(1, plugin.getConfig().getInt("effects.display_update_interval", 3));
+    }
+
+    /**
+     * Checks if effects may use display entities.
+     *
+     * @return true unless the server is region-threaded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the number of ticks between display position updates. Displays interpolate over
+     * exactly this many ticks, so effects should teleport them at this rate.
+     *
+     * @return the update interval in ticks
+     */
+    public int getUpdateInterval() {
+        return updateInterval;
+    }
+
+    /**
+     * Takes a display from the pool, or spawns one, and shows it at a location.
+     *
+     * @param location the location to show the display at
+     * @param block the block to display
+     * @param scale the size of the block, centred on the location
+     * @return the visible display
+     */
+    public BlockDisplay acquire(Location location, BlockData block, float scale) {
+        BlockDisplay display = pollIdle(location.getWorld());
+        if (display == null) {
+            display = location.getWorld().spawn(location, BlockDisplay.class, spawned -> {
+                spawned.setPersistent(false);
+                spawned.setVisibleByDefault(false);
+            });
+            plugin.getMetricsManager().recordEntitySpawned();
+        } else {
+            display.setTeleportDuration(0);
+            display.teleport(location);
+        }
+
+        display.setBlock(block);
+        display.setTransformation(new Transformation(
+                new Vector3f(-scale / 2, -scale / 2, -scale / 2),
+                new AxisAngle4f(),
+                new Vector3f(scale, scale, scale),
+                new AxisAngle4f()));
+        display.setTeleportDuration(updateInterval);
+        display.setVisibleByDefault(true);
+        return display;
+    }
+
+    /**
+     * Hides a display and returns it to the pool.
+     *
+     * @param display the display to release
+     */
+    public void release(BlockDisplay display) {
+        if (!display.isValid()) {
+            return;
+        }
+
+        ArrayDeque<BlockDisplay> displays = idle.computeIfAbsent(display.getWorld().getUID(), k -> new ArrayDeque<>());
+        if (displays.size() >= maxIdlePerWorld) {
+            display.remove();
+            return;
+        }
+
+        display.setVisibleByDefault(false);
+        displays.push(display);
+    }
+
+    /**
+     * Removes every pooled display.
+     */
+    public void clear() {
+        for (ArrayDeque<BlockDisplay> displays : idle.values()) {
+            for (BlockDisplay display : displays) {
+                display.remove();
+            }
+        }
+        idle.clear();
+    }
+
+    /**
+     * Takes the most recently released valid display of a world.
+     *
+     * @param world the world to take a display from
+     * @return a pooled display, or null if none is available
+     */
+    private BlockDisplay pollIdle(World world) {
+        ArrayDeque<BlockDisplay> displays = idle.get(world.getUID());
+        if (displays == null) {
+            return null;
+        }
+
+        BlockDisplay display;
+        while ((display = displays.poll()) != null) {
+            if (display.isValid()) {
+                return display;
+            }
+        }
+        return null;
+    }
+}
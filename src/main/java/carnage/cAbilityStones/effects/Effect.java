@@ -0,0 +1,49 @@
+package carnage.cAbilityStones.effects;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+
+/**
+ * Defines a lightweight, tick-driven effect owned by the {@link EffectEngine}.
+ */
+public interface Effect {
+    /**
+     * Advances the gameplay state of the effect by one tick. Always called once per tick.
+     *
+     * @return true if the effect is still running, false once it has finished
+     */
+    boolean tick();
+
+    /**
+     * Renders the cosmetic part of the effect for its current state. May be deferred to a
+     * later tick when the engine runs out of its per-tick budget.
+     */
+    void render();
+
+    /**
+     * Releases anything the effect holds in the world. Called exactly once when the effect
+     * finishes or the engine shuts down.
+     */
+    void stop();
+
+    /**
+     * Gets the entity the effect is bound to. On region-threaded servers the effect runs on the
+     * thread that owns this entity. Read after every tick, so the binding may change while the
+     * effect runs.
+     *
+     * @return the owning entity, or null if the effect is not bound to one
+     */
+    default Entity owner() {
+        return null;
+    }
+
+    /**
+     * Gets the current position of an effect without an owner. On region-threaded servers the
+     * effect runs on the region that owns this position, moving with it every tick.
+     *
+     * @return the current position, or null to run on the global region
+     */
+    default Location location() {
+        return null;
+    }
+}
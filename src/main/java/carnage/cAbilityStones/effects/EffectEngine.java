@@ -0,0 +1,301 @@
+package carnage.cAbilityStones.effects;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.managers.MetricsManager;
+import carnage.cAbilityStones.utils.SchedulerAdapter;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Drives every active effect from a single repeating task.
+ * <p>
+ * Effects are kept in a flat array and updated in one loop per tick. Gameplay updates always run;
+ * cosmetic rendering stops once the configured per-tick budget is used up and resumes on the next
+ * tick from the first effect that was skipped.
+ * <p>
+ * On region-threaded servers there is no single thread that may touch every effect, so each
+ * effect instead runs as its own task on the thread that owns its {@linkplain Effect#owner() owner},
+ * or on the region of its {@linkplain Effect#location() location}, without a shared budget. Both
+ * are read again after every tick, so an effect may switch between them.
+ */
+public class EffectEngine implements Runnable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final CAbilityStones plugin;
+    private final SchedulerAdapter scheduler;
+    private final MetricsManager metrics;
+    private final Set<RegionEffect> regionEffects;
+    private Effect[] effects;
+    private int size;
+    private int renderCursor;
+    private long budgetNanos;
+    private SchedulerAdapter.Task task;
+
+    public EffectEngine(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getSchedulerAdapter();
+        this.metrics = plugin.getMetricsManager();
+        this.regionEffects = ConcurrentHashMap.newKeySet();
+        this.effects = new Effect[INITIAL_CAPACITY];
+        reload();
+    }
+
+    /**
+     * Reads the per-tick time budget from the configuration.
+     */
+    public void reload() {
+        budgetNanos = Math.max(0, plugin.getConfig().getLong("effects.tick_budget_micros", 2000)) * 1000;
+    }
+
+    /**
+     * Starts ticking the engine once per server tick.
+     */
+    public void start() {
+        if (task == null && !scheduler.isRegionThreaded()) {
+            task = scheduler.runTimer(this, 1, 1);
+        }
+    }
+
+    /**
+     * Stops the engine and every effect it still owns.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (int i = 0; i < size; i++) {
+            stopSafely(effects[i]);
+        }
+        Arrays.fill(effects, 0, size, null);
+        size = 0;
+        renderCursor = 0;
+        for (RegionEffect regionEffect : regionEffects) {
+            regionEffect.finish();
+        }
+    }
+
+    /**
+     * Registers an effect. It is first ticked on the next engine run.
+     *
+     * @param effect the effect to run
+     */
+    public void register(Effect effect) {
+        if (scheduler.isRegionThreaded()) {
+            new RegionEffect(effect).start();
+            return;
+        }
+        if (size == effects.length) {
+            effects = Arrays.copyOf(effects, size * 2);
+        }
+        effects[size++] = effect;
+    }
+
+    /**
+     * Gets the number of running effects.
+     *
+     * @return the active effect count
+     */
+    public int getActiveCount() {
+        return size + regionEffects.size();
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        tickEffects();
+        renderEffects(start);
+        metrics.recordEffectTick(System.nanoTime() - start);
+    }
+
+    /**
+     * Advances every effect and removes the ones that finished.
+     */
+    private void tickEffects() {
+        int count = size;
+        int i = 0;
+        while (i < count) {
+            Effect effect = effects[i];
+            if (tickSafely(effect)) {
+                i++;
+                continue;
+            }
+
+            stopSafely(effect);
+            effects[i] = effects[count - 1];
+            effects[count - 1] = effects[size - 1];
+            effects[--size] = null;
+            count--;
+        }
+    }
+
+    /**
+     * Renders effects round-robin until the tick budget is exhausted.
+     *
+     * @param start the time the current tick started
+     */
+    private void renderEffects(long start) {
+        if (size == 0) {
+            renderCursor = 0;
+            return;
+        }
+
+        int count = size;
+        int index = renderCursor < count ? renderCursor : 0;
+        for (int rendered = 0; rendered < count; rendered++) {
+            renderSafely(effects[index]);
+            index = index + 1 < count ? index + 1 : 0;
+            if (budgetNanos > 0 && System.nanoTime() - start > budgetNanos) {
+                break;
+            }
+        }
+        renderCursor = index;
+    }
+
+    /**
+     * Ticks an effect, treating a failure as the end of the effect.
+     *
+     * @param effect the effect to tick
+     * @return true if the effect is still running
+     */
+    private boolean tickSafely(Effect effect) {
+        try {
+            return effect.tick();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Effect failed while ticking and was stopped", e);
+            return false;
+        }
+    }
+
+    /**
+     * Renders an effect, logging instead of propagating failures.
+     *
+     * @param effect the effect to render
+     */
+    private void renderSafely(Effect effect) {
+        try {
+            effect.render();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Effect failed while rendering", e);
+        }
+    }
+
+    /**
+     * Stops an effect, logging instead of propagating failures.
+     *
+     * @param effect the effect to stop
+     */
+    private void stopSafely(Effect effect) {
+        try {
+            effect.stop();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Effect failed while stopping", e);
+        }
+    }
+
+    /**
+     * An effect running as its own task on a region-threaded server.
+     * <p>
+     * The binding is checked again after every run, so an effect can move between its owner's
+     * thread and the region of its location while it runs.
+     */
+    private final class RegionEffect implements Runnable {
+        private final Effect effect;
+        private SchedulerAdapter.Task task;
+        private Entity bound;
+        private volatile boolean finished;
+
+        private RegionEffect(Effect effect) {
+            this.effect = effect;
+        }
+
+        /**
+         * Schedules the first run of the effect.
+         */
+        private void start() {
+            regionEffects.add(this);
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            if (finished) {
+                if (task != null) {
+                    task.cancel();
+                }
+                return;
+            }
+            long start = System.nanoTime();
+            if (!tickSafely(effect)) {
+                finish();
+                metrics.recordEffectTick(System.nanoTime() - start);
+                return;
+            }
+
+            renderSafely(effect);
+            metrics.recordEffectTick(System.nanoTime() - start);
+            schedule();
+        }
+
+        /**
+         * Schedules the next run on the thread matching the effect's current binding: a repeating
+         * task on its owner, one run on the region of its location, or a repeating global task.
+         * A repeating task is kept as long as the binding does not change.
+         */
+        private void schedule() {
+            Entity owner = effect.owner();
+            if (owner != null) {
+                if (owner == bound && task != null) {
+                    return;
+                }
+                cancelTask();
+                bound = owner;
+                task = scheduler.runTimer(owner, this, this::finish, 1, 1);
+                if (task == null) {
+                    finish();
+                }
+                return;
+            }
+
+            Location location = effect.location();
+            if (location != null) {
+                cancelTask();
+                scheduler.runLater(location, this, 1);
+            } else if (task == null || bound != null) {
+                cancelTask();
+                task = scheduler.runTimer(this, 1, 1);
+            }
+        }
+
+        /**
+         * Cancels the repeating task, if any, and forgets its binding.
+         */
+        private void cancelTask() {
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+            bound = null;
+        }
+
+        /**
+         * Cancels the task and stops the effect, once.
+         */
+        private synchronized void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (task != null) {
+                task.cancel();
+            }
+            regionEffects.remove(this);
+            stopSafely(effect);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package carnage.cAbilityStones.effects;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.managers.StatsManager;
+import carnage.cAbilityStones.managers.TargetIndex;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.utils.SchedulerAdapter;
+import org.bukkit.FluidCollisionMode;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.damage.DamageType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies ability explosions, merging those that land in the same chunk on the same tick.
+ * <p>
+ * Explosions are collected per chunk and resolved together on the next tick, on the thread that
+ * owns the chunk, with one merged particle burst. In vanilla mode, the default, every impact
+ * still becomes its own game explosion at its own point and power, so only the extra particles
+ * are shared. The opt-in virtual mode costs one radius query around the centre instead: every
+ * target in range takes the falloff damage and knockback of the strongest explosion reaching it,
+ * optionally only through a clear line from the impact point, with the same formula as the game
+ * but without its ray-sampled exposure, so cover protects less than it does in vanilla.
+ */
+public class ExplosionBatcher {
+    private static final double EYE_FACTOR = 0.5;
+
+    private final CAbilityStones plugin;
+    private final SchedulerAdapter scheduler;
+    private final TargetIndex targetIndex;
+    private final ParticleDispatcher dispatcher;
+    private final StatsManager stats;
+    private final Map<ChunkKey, Group> groups;
+    private volatile boolean virtual;
+    private volatile boolean lineOfSight;
+
+    public ExplosionBatcher(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getSchedulerAdapter();
+        this.targetIndex = plugin.getTargetIndex();
+        this.dispatcher = plugin.getParticleDispatcher();
+        this.stats = plugin.getStatsManager();
+        this.groups = new ConcurrentHashMap<>();
+        reload();
+    }
+
+    /**
+     * Reads the explosion mode from the configuration.
+     */
+    public void reload() {
+        virtual = "virtual".equalsIgnoreCase(plugin.getConfig().getString("explosions.mode", "vanilla"));
+        lineOfSight = plugin.getConfig().getBoolean("explosions.line_of_sight", false);
+    }
+
+    /**
+     * Queues an explosion, to be resolved with the others in its chunk on the next tick. Must be
+     * called on the thread that owns the location.
+     *
+     * @param location the impact point
+     * @param power the explosion power, as passed to {@link World#createExplosion}
+     * @param caster the player the explosion belongs to, never hurt by it
+     * @param type the stone type the damage is recorded for
+     */
+    public void explode(Location location, double power, Player caster, StoneType type) {
+        World world = location.getWorld();
+        ChunkKey key = new ChunkKey(world.getUID(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        groups.computeIfAbsent(key, k -> {
+            scheduler.runLater(location, () -> resolve(k), 1);
+            return new Group(world);
+        }).add(location, power, caster, type);
+    }
+
+    /**
+     * Applies every explosion queued for a chunk.
+     *
+     * @param key the chunk
+     */
+    private void resolve(ChunkKey key) {
+        Group group = groups.remove(key);
+        if (group == null || group.size == 0) {
+            return;
+        }
+
+        Location center = group.center();
+        if (virtual) {
+            applyVirtual(group, center);
+            center.getWorld().playSound(center, Sound.ENTITY_GENERIC_EXPLODE, 4.0f, 0.7f * (0.9f + ThreadLocalRandom.current().nextFloat() * 0.2f));
+        } else {
+            for (int i = 0; i < group.size; i++) {
+                group.world.createExplosion(group.xs[i], group.ys[i], group.zs[i], (float) group.powers[i], false, false);
+            }
+        }
+
+        double spread = 1 + group.extent(center);
+        if (dispatcher.collect(center, group.viewers)) {
+            dispatcher.spawn(group.viewers, Particle.EXPLOSION, center.getX(), center.getY(), center.getZ(), 5, spread * 0.5, spread * 0.5, spread * 0.5, 1);
+            dispatcher.spawn(group.viewers, Particle.FLAME, center.getX(), center.getY(), center.getZ(), 50, spread, spread, spread, 0.1);
+        }
+    }
+
+    /**
+     * Damages and pushes the targets of a group with one radius query.
+     *
+     * @param group the explosions
+     * @param center the centre of the explosions
+     */
+    private void applyVirtual(Group group, Location center) {
+        List<LivingEntity> targets = new ArrayList<>();
+        targetIndex.findInRadius(center, group.extent(center) + group.maxPower * 2 + 1, entity -> !entity.isDead(), targets);
+
+        Location position = new Location(center.getWorld(), 0, 0, 0);
+        for (LivingEntity target : targets) {
+            target.getLocation(position);
+            double targetY = position.getY() + target.getHeight() * EYE_FACTOR;
+            int strongest = -1;
+            double impact = 0;
+            for (int i = 0; i < group.size; i++) {
+                if (target.equals(group.casters[i])) {
+                    continue;
+                }
+                double radius = group.powers[i] * 2;
+                double dx = position.getX() - group.xs[i];
+                double dy = targetY - group.ys[i];
+                double dz = position.getZ() - group.zs[i];
+                double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                double candidate = 1 - distance / radius;
+                if (candidate > impact && (!lineOfSight || isExposed(center.getWorld(), group, i, dx, dy, dz, distance))) {
+                    impact = candidate;
+                    strongest = i;
+                }
+            }
+            if (strongest >= 0) {
+                hit(group, strongest, target, position, targetY, impact);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a block lies between an explosion and a target.
+     *
+     * @param world the world
+     * @param group the explosions
+     * @param index the explosion
+     * @param dx the offset to the target on the x axis
+     * @param dy the offset to the target on the y axis
+     * @param dz the offset to the target on the z axis
+     * @param distance the distance to the target
+     * @return true if the line from the explosion to the target is clear
+     */
+    private boolean isExposed(World world, Group group, int index, double dx, double dy, double dz, double distance) {
+        if (distance < 1.0E-3) {
+            return true;
+        }
+        Location origin = new Location(world, group.xs[index], group.ys[index], group.zs[index]);
+        Vector direction = new Vector(dx / distance, dy / distance, dz / distance);
+        return world.rayTraceBlocks(origin, direction, distance, FluidCollisionMode.NEVER, true) == null;
+    }
+
+    /**
+     * Applies one explosion's damage and knockback to a target, as the game computes them from
+     * the impact, and records the damage for the caster.
+     *
+     * @param group the explosions
+     * @param index the explosion
+     * @param target the target
+     * @param position the target's position
+     * @param targetY the height the explosion aims at
+     * @param impact the falloff factor, 1 at the centre and 0 at the edge
+     */
+    private void hit(Group group, int index, LivingEntity target, Location position, double targetY, double impact) {
+        double radius = group.powers[index] * 2;
+        double damage = (impact * impact + impact) / 2 * 7 * radius + 1;
+        Player caster = group.casters[index];
+        boolean attributed = caster != null && caster.isOnline();
+        Location source = new Location(target.getWorld(), group.xs[index], group.ys[index], group.zs[index]);
+        DamageSource damageSource = attributed
+                ? DamageSource.builder(DamageType.PLAYER_EXPLOSION).withCausingEntity(caster).withDirectEntity(caster).withDamageLocation(source).build()
+                : DamageSource.builder(DamageType.EXPLOSION).withDamageLocation(source).build();
+
+        double health = target.getHealth();
+        target.damage(damage, damageSource);
+        if (attributed) {
+            stats.recordHits(caster, group.types[index], 1);
+            stats.recordDamage(caster, group.types[index], health - target.getHealth(), target.isDead());
+        }
+
+        Vector push = new Vector(position.getX() - source.getX(), targetY - source.getY(), position.getZ() - source.getZ());
+        if (push.lengthSquared() < 1.0E-6) {
+            return;
+        }
+        AttributeInstance resistance = target.getAttribute(Attribute.EXPLOSION_KNOCKBACK_RESISTANCE);
+        double strength = impact * (resistance == null ? 1 : 1 - resistance.getValue());
+        target.setVelocity(target.getVelocity().add(push.normalize().multiply(strength)));
+    }
+
+    /**
+     * Identifies a chunk of a world.
+     *
+     * @param world the world's UUID
+     * @param x the chunk x coordinate
+     * @param z the chunk z coordinate
+     */
+    private record ChunkKey(UUID world, int x, int z) {
+    }
+
+    /**
+     * The explosions queued for one chunk, kept in parallel arrays.
+     */
+    private static final class Group {
+        private final World world;
+        private final ParticleViewers viewers;
+        private double[] xs;
+        private double[] ys;
+        private double[] zs;
+        private double[] powers;
+        private Player[] casters;
+        private StoneType[] types;
+        private int size;
+        private double maxPower;
+
+        private Group(World world) {
+            this.world = world;
+            this.viewers = new ParticleViewers();
+            this.xs = new double[2];
+            this.ys = new double[2];
+            this.zs = new double[2];
+            this.powers = new double[2];
+            this.casters = new Player[2];
+            this.types = new StoneType[2];
+        }
+
+        /**
+         * Adds an explosion to the group.
+         *
+         * @param location the impact point
+         * @param power the explosion power
+         * @param caster the player the explosion belongs to
+         * @param type the stone type
+         */
+        private void add(Location location, double power, Player caster, StoneType type) {
+            if (size == xs.length) {
+                int capacity = size * 2;
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                zs = Arrays.copyOf(zs, capacity);
+                powers = Arrays.copyOf(powers, capacity);
+                casters = Arrays.copyOf(casters, capacity);
+                types = Arrays.copyOf(types, capacity);
+            }
+            xs[size] = location.getX();
+            ys[size] = location.getY();
+            zs[size] = location.getZ();
+            powers[size] = power;
+            casters[size] = caster;
+            types[size] = type;
+            size++;
+            maxPower = Math.max(maxPower, power);
+        }
+
+        /**
+         * Computes the mean position of the explosions.
+         *
+         * @return the centre
+         */
+        private Location center() {
+            double x = 0;
+            double y = 0;
+            double z = 0;
+            for (int i = 0; i < size; i++) {
+                x += xs[i];
+                y += ys[i];
+                z += zs[i];
+            }
+            return new Location(world, x / size, y / size, z / size);
+        }
+
+        /**
+         * Computes the largest distance from the centre to an explosion.
+         *
+         * @param center the centre
+         * @return the distance in blocks
+         */
+        private double extent(Location center) {
+            double extent = 0;
+            for (int i = 0; i < size; i++) {
+                double dx = xs[i] - center.getX();
+                double dy = ys[i] - center.getY();
+                double dz = zs[i] - center.getZ();
+                extent = Math.max(extent, dx * dx + dy * dy + dz * dz);
+            }
+            return Math.sqrt(extent);
+        }
+    }
+}
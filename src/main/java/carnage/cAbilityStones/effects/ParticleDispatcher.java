@@ -0,0 +1,152 @@
+package carnage.cAbilityStones.effects;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.managers.MetricsManager;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Sends effect particles only to the players that can see them.
+ * <p>
+ * Viewers within the view distance are collected once per effect tick. Viewers beyond the
+ * level-of-detail distance only receive every n-th sample of a shape and a proportionally
+ * smaller particle count, and nothing is sent at all when nobody is in range.
+ * <p>
+ * On region-threaded servers the players of a world cannot be read from a region thread, so
+ * particles are broadcast through the world instead, which only reaches nearby players.
+ */
+public class ParticleDispatcher {
+    private final CAbilityStones plugin;
+    private final MetricsManager metrics;
+    private final boolean broadcast;
+    private double viewDistanceSquared;
+    private double lodDistanceSquared;
+    private int lodStride;
+
+    public ParticleDispatcher(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.metrics = plugin.getMetricsManager();
+        this.broadcast = plugin.getSchedulerAdapter().isRegionThreaded();
+        reload();
+    }
+
+    /**
+     * Reads the view distance and level-of-detail settings from the configuration.
+     */
+    public void reload() {
+        double viewDistance = plugin.getConfig().getDouble("particles.view_distance", 48.0);
+        double lodDistance = plugin.getConfig().getDouble("particles.lod_distance", 16.0);
+        viewDistanceSquared = viewDistance * viewDistance;
+        lodDistanceSquared = lodDistance * lodDistance;
+        lodStride = Math.max(1, plugin.getConfig().getInt("particles.lod_stride", 4));
+    }
+
+    /**
+     * Collects the players that can see an effect at the given position.
+     *
+     * @param world the world of the effect
+     * @param x the x coordinate of the effect
+     * @param y the y coordinate of the effect
+     * @param z the z coordinate of the effect
+     * @param viewers the set to fill, cleared first
+     * @return true if at least one player can see the effect
+     */
+    public boolean collect(World world, double x, double y, double z, ParticleViewers viewers) {
+        viewers.clear();
+        if (broadcast) {
+            viewers.broadcast = world;
+            return true;
+        }
+
+        Location scratch = viewers.scratch;
+        for (Player player : world.getPlayers()) {
+            player.getLocation(scratch);
+            double dx = scratch.getX() - x;
+            double dy = scratch.getY() - y;
+            double dz = scratch.getZ() - z;
+            double distanceSquared = dx * dx + dy * dy + dz * dz;
+            if (distanceSquared <= viewDistanceSquared) {
+                viewers.add(player, distanceSquared > lodDistanceSquared);
+            }
+        }
+        scratch.setWorld(null);
+        return !viewers.isEmpty();
+    }
+
+    /**
+     * Collects the players that can see an effect at the given location.
+     *
+     * @param location the location of the effect
+     * @param viewers the set to fill, cleared first
+     * @return true if at least one player can see the effect
+     */
+    public boolean collect(Location location, ParticleViewers viewers) {
+        return collect(location.getWorld(), location.getX(), location.getY(), location.getZ(), viewers);
+    }
+
+    /**
+     * Sends one sample of a shape to the collected viewers.
+     *
+     * @param viewers the viewers collected for this tick
+     * @param sample the index of the sample within its shape, used to thin out far viewers
+     * @param particle the particle to spawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @param count the number of particles
+     * @param offsetX the random x offset
+     * @param offsetY the random y offset
+     * @param offsetZ the random z offset
+     * @param extra the particle speed
+     * @param data the particle data, or null
+     * @param <T> the particle data type
+     */
+    public <T> void spawn(ParticleViewers viewers, int sample, Particle particle, double x, double y, double z, int count,
+                          double offsetX, double offsetY, double offsetZ, double extra, T data) {
+        if (count <= 0) {
+            return;
+        }
+        if (viewers.broadcast != null) {
+            viewers.broadcast.spawnParticle(particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, data);
+            metrics.recordParticles(count);
+            return;
+        }
+
+        boolean farSample = sample % lodStride == 0;
+        int farCount = Math.max(1, count / lodStride);
+        Player[] players = viewers.players;
+        boolean[] far = viewers.far;
+        long sent = 0;
+        for (int i = 0; i < viewers.size; i++) {
+            if (!far[i]) {
+                players[i].spawnParticle(particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, data);
+                sent += count;
+            } else if (farSample) {
+                players[i].spawnParticle(particle, x, y, z, farCount, offsetX, offsetY, offsetZ, extra, data);
+                sent += farCount;
+            }
+        }
+        metrics.recordParticles(sent);
+    }
+
+    /**
+     * Sends a particle burst that is not part of a larger shape to the collected viewers.
+     *
+     * @param viewers the viewers collected for this tick
+     * @param particle the particle to spawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @param count the number of particles
+     * @param offsetX the random x offset
+     * @param offsetY the random y offset
+     * @param offsetZ the random z offset
+     * @param extra the particle speed
+     */
+    public void spawn(ParticleViewers viewers, Particle particle, double x, double y, double z, int count,
+                      double offsetX, double offsetY, double offsetZ, double extra) {
+        spawn(viewers, 0, particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, null);
+    }
+}
@@ -0,0 +1,71 @@
+package carnage.cAbilityStones.effects;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+
+/**
+ * Reusable set of players that can see an effect, collected once per effect tick by the
+ * {@link ParticleDispatcher}. Each effect owns its own instance. When the dispatcher cannot
+ * enumerate viewers, it sets a world to broadcast to instead.
+ */
+public final class ParticleViewers {
+    private static final int INITIAL_CAPACITY = 8;
+
+    Player[] players;
+    boolean[] far;
+    int size;
+    World broadcast;
+    final Location scratch;
+
+    public ParticleViewers() {
+        this.players = new Player[INITIAL_CAPACITY];
+        this.far = new boolean[INITIAL_CAPACITY];
+        this.scratch = new Location(null, 0, 0, 0);
+    }
+
+    /**
+     * Checks if anyone can see the effect.
+     *
+     * @return true if no viewer was collected
+     */
+    public boolean isEmpty() {
+        return size == 0 && broadcast == null;
+    }
+
+    /**
+     * Gets the number of collected viewers.
+     *
+     * @return the viewer count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all viewers, releasing the player references.
+     */
+    void clear() {
+        Arrays.fill(players, 0, size, null);
+        size = 0;
+        broadcast = null;
+    }
+
+    /**
+     * Adds a viewer.
+     *
+     * @param player the viewing player
+     * @param isFar whether the player should receive reduced detail
+     */
+    void add(Player player, boolean isFar) {
+        if (size == players.length) {
+            players = Arrays.copyOf(players, size * 2);
+            far = Arrays.copyOf(far, size * 2);
+        }
+        players[size] = player;
+        far[size] = isFar;
+        size++;
+    }
+}
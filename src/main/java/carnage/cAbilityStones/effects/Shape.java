@@ -0,0 +1,157 @@
+package carnage.cAbilityStones.effects;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed table of point offsets, stored as flat {@code x, y, z} triplets.
+ * <p>
+ * Effects scale and add these offsets to a reusable position instead of evaluating
+ * trigonometry or allocating locations every tick. Tables are immutable and shared.
+ */
+public final class Shape {
+    private static final int DEGREES = 360;
+    private static final int SCATTER_SAMPLES = 256;
+    private static final Map<Integer, Shape> RINGS = new ConcurrentHashMap<>();
+    private static final Shape CIRCLE = ring(DEGREES);
+    private static final Shape SCATTER = createScatter(SCATTER_SAMPLES, 0x5EEDL);
+
+    private final double[] offsets;
+    private final int size;
+
+    private Shape(double[] offsets) {
+        this.offsets = offsets;
+        this.size = offsets.length / 3;
+    }
+
+    /**
+     * Gets a horizontal unit circle sampled at evenly spaced angles, starting at angle 0.
+     *
+     * @param samples the number of points on the ring
+     * @return the shared ring table
+     */
+    public static Shape ring(int samples) {
+        return RINGS.computeIfAbsent(Math.max(1, samples), Shape::createRing);
+    }
+
+    /**
+     * Gets a horizontal unit circle with one point per whole degree, used to look up orbit positions.
+     *
+     * @return the shared one-degree circle table
+     */
+    public static Shape circle() {
+        return CIRCLE;
+    }
+
+    /**
+     * Gets a table of random points in the horizontal unit disc, with the distance from the centre
+     * uniformly distributed. Effects pick random indices into it instead of sampling angles.
+     *
+     * @return the shared scatter table
+     */
+    public static Shape scatter() {
+        return SCATTER;
+    }
+
+    /**
+     * Creates a vertical line of points going downwards from the origin.
+     *
+     * @param length the length of the line in blocks
+     * @param step the spacing between points in blocks
+     * @return the spike table
+     */
+    public static Shape spike(double length, double step) {
+        int samples = Math.max(1, (int) Math.ceil(length / step - 1e-9));
+        double[] offsets = new double[samples * 3];
+        for (int i = 0; i < samples; i++) {
+            offsets[i * 3 + 1] = -i * step;
+        }
+        return new Shape(offsets);
+    }
+
+    /**
+     * Gets the number of points in the table.
+     *
+     * @return the point count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the x offset of a point.
+     *
+     * @param index the point index
+     * @return the x offset
+     */
+    public double x(int index) {
+        return offsets[index * 3];
+    }
+
+    /**
+     * Gets the y offset of a point.
+     *
+     * @param index the point index
+     * @return the y offset
+     */
+    public double y(int index) {
+        return offsets[index * 3 + 1];
+    }
+
+    /**
+     * Gets the z offset of a point.
+     *
+     * @param index the point index
+     * @return the z offset
+     */
+    public double z(int index) {
+        return offsets[index * 3 + 2];
+    }
+
+    /**
+     * Gets the index into {@link #circle()} for an angle, rounded to the nearest degree.
+     *
+     * @param degrees the angle in degrees, may be negative or above 360
+     * @return the table index
+     */
+    public static int degreeIndex(double degrees) {
+        int index = (int) Math.round(degrees) % DEGREES;
+        return index < 0 ? index + DEGREES : index;
+    }
+
+    /**
+     * Computes a unit ring table.
+     *
+     * @param samples the number of points on the ring
+     * @return the new ring table
+     */
+    private static Shape createRing(int samples) {
+        double[] offsets = new double[samples * 3];
+        for (int i = 0; i < samples; i++) {
+            double radians = 2 * Math.PI * i / samples;
+            offsets[i * 3] = Math.cos(radians);
+            offsets[i * 3 + 2] = Math.sin(radians);
+        }
+        return new Shape(offsets);
+    }
+
+    /**
+     * Computes a table of random points in the unit disc from a fixed seed.
+     *
+     * @param samples the number of points
+     * @param seed the random seed
+     * @return the new scatter table
+     */
+    private static Shape createScatter(int samples, long seed) {
+        Random random = new Random(seed);
+        double[] offsets = new double[samples * 3];
+        for (int i = 0; i < samples; i++) {
+            double radians = random.nextDouble() * Math.PI * 2;
+            double distance = random.nextDouble();
+            offsets[i * 3] = Math.cos(radians) * distance;
+            offsets[i * 3 + 2] = Math.sin(radians) * distance;
+        }
+        return new Shape(offsets);
+    }
+}
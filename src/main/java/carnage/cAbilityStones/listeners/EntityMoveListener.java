@@ -0,0 +1,33 @@
+package carnage.cAbilityStones.listeners;
+
+import carnage.cAbilityStones.managers.TargetIndex;
+import io.papermc.paper.event.entity.EntityMoveEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Feeds every mob movement into the target index, keeping mob positions exact between resyncs.
+ * <p>
+ * Only registered when {@code targeting.track_mob_movement} is enabled, since the server only
+ * fires the move event while something listens for it.
+ */
+public class EntityMoveListener implements Listener {
+    private final TargetIndex targetIndex;
+
+    public EntityMoveListener(TargetIndex targetIndex) {
+        this.targetIndex = targetIndex;
+    }
+
+    /**
+     * Updates the position of a moving non-player entity.
+     *
+     * @param event the entity move event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityMove(EntityMoveEvent event) {
+        if (event.getFrom().getWorld() == event.getTo().getWorld()) {
+            targetIndex.move(event.getEntity(), event.getTo());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package carnage.cAbilityStones.listeners;
+
+import carnage.cAbilityStones.CAbilityStones;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Keeps per-player plugin state limited to online players.
+ */
+public class PlayerConnectionListener implements Listener {
+    private final CAbilityStones plugin;
+
+    public PlayerConnectionListener(CAbilityStones plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Restores archived cooldowns for a joining player and shows them on the HUD.
+     *
+     * @param event the player join event
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        plugin.getCooldownManager().restore(event.getPlayer().getUniqueId());
+        plugin.getCooldownHud().track(event.getPlayer());
+    }
+
+    /**
+     * Archives or drops the cooldown state, the session and the HUD of a leaving player.
+     *
+     * @param event the player quit event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getCooldownManager().archive(event.getPlayer().getUniqueId());
+        plugin.getSessionManager().remove(event.getPlayer().getUniqueId());
+        plugin.getCooldownHud().untrack(event.getPlayer().getUniqueId());
+    }
+}
@@ -1,55 +1,67 @@
 package carnage.cAbilityStones.listeners;
 
 import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.managers.CooldownManager;
+import carnage.cAbilityStones.managers.SessionManager;
+import carnage.cAbilityStones.models.PlayerSession;
 import carnage.cAbilityStones.models.StoneType;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.UUID;
 
 /**
  * Listens for player interactions with ability stones and triggers their abilities.
+ * <p>
+ * One click can produce several interact events: one per hand, and a block click followed by an
+ * air click. Only the first stone event of a player in a tick reaches the cooldown check; the
+ * others are cancelled without further work. Activation attempts are further rate limited per
+ * player, and cooldown messages are throttled so that holding the button does not flood the chat.
  */
 public class StoneInteractListener implements Listener {
-    private static final Pattern COLOR_CODE_PATTERN = Pattern.compile("&([0-9a-fA-Fk-oK-O])");
+    private static final int CACHED_COOLDOWN_TENTHS = 6000;
 
     private final CAbilityStones plugin;
+    private final Component[] cooldownMessages;
 
     public StoneInteractListener(CAbilityStones plugin) {
         this.plugin = plugin;
+        this.cooldownMessages = new Component[CACHED_COOLDOWN_TENTHS];
     }
 
     /**
      * Handles player interaction events to activate ability stones on right-click.
+     * <p>
+     * Air clicks arrive already cancelled, so instead of ignoring cancelled events this checks
+     * whether another plugin denied the use of the item.
      *
      * @param event the player interact event
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerInteract(PlayerInteractEvent event) {
-        if (!isRightClick(event.getAction())) {
-            return;
-        }
-
-        Player player = event.getPlayer();
         ItemStack item = event.getItem();
-        if (item == null) {
+        if (item == null || !isRightClick(event.getAction()) || event.useItemInHand() == Event.Result.DENY) {
             return;
         }
 
-        if (!plugin.getStoneManager().isAbilityStone(item)) {
+        StoneType stoneType = plugin.getStoneManager().identify(item);
+        if (stoneType == null) {
             return;
         }
 
-        StoneType stoneType = plugin.getStoneManager().getStoneType(item);
         event.setCancelled(true);
-        handleStoneActivation(player, stoneType);
+        Player player = event.getPlayer();
+        PlayerSession session = plugin.getSessionManager().get(player);
+        if (session.markInteraction(player.getTicksLived())) {
+            handleStoneActivation(player, session, stoneType);
+        }
     }
 
     /**
@@ -63,99 +75,83 @@ public class StoneInteractListener implements Listener {
     }
 
     /**
-     * Handles the activation of an ability stone, including cooldown checks.
+     * Handles the activation of an ability stone, including rate limit and cooldown checks.
+     * <p>
+     * The cooldown is claimed atomically before the ability runs, so one lookup both checks and
+     * starts it; the ability manager rolls it back if the ability fails. A started cooldown is
+     * handed to the HUD.
      *
      * @param player the player using the stone
+     * @param session the player's session
      * @param stoneType the type of stone
      */
-    private void handleStoneActivation(Player player, StoneType stoneType) {
-        if (plugin.getCooldownManager().hasCooldown(player.getUniqueId(), stoneType)) {
-            long remaining = plugin.getCooldownManager().getRemainingCooldown(player.getUniqueId(), stoneType);
-            double seconds = remaining / 1000.0;
-            String message = String.format("Ability on cooldown! %.1fs remaining", seconds);
-            sendMessage(player, translateLegacyColorCodes("&c" + message));
+    private void handleStoneActivation(Player player, PlayerSession session, StoneType stoneType) {
+        CooldownManager cooldownManager = plugin.getCooldownManager();
+        SessionManager sessionManager = plugin.getSessionManager();
+        long now = cooldownManager.now();
+        if (!sessionManager.tryActivate(session, now)) {
+            plugin.getMetricsManager().recordRateLimited();
+            return;
+        }
+
+        UUID id = player.getUniqueId();
+        long cooldown = plugin.getSettingsManager().get(stoneType).getCooldown();
+        long remaining = cooldownManager.tryAcquire(id, stoneType, cooldown, now);
+        if (remaining > 0) {
+            plugin.getMetricsManager().recordCooldownRejection(stoneType);
+            if (sessionManager.tryCooldownMessage(session, now)) {
+                sendCooldownMessage(player, getCooldownMessage(remaining), sessionManager.isCooldownActionBar());
+            }
             return;
         }
 
-        boolean success = plugin.getAbilityManager().activateAbility(player, stoneType);
-        if (success) {
-            long cooldown = plugin.getAbilityManager().getAbility(stoneType).getCooldown();
-            plugin.getCooldownManager().setCooldown(player.getUniqueId(), stoneType, cooldown);
+        if (plugin.getAbilityManager().activateAbility(player, stoneType, cooldown, now)) {
+            plugin.getCooldownHud().track(player);
         }
     }
 
     /**
-     * Translates legacy color codes (&x) to Adventure Component with NamedTextColor.
+     * Gets the cooldown message for a remaining time, compiling each displayed value only once.
      *
-     * @param text the text with legacy color codes
+     * @param remaining the remaining cooldown in milliseconds
      * @return the formatted Component
      */
-    private Component translateLegacyColorCodes(String text) {
-        if (text == null) {
-            return Component.empty();
-        }
-
-        StringBuilder builder = new StringBuilder();
-        Matcher matcher = COLOR_CODE_PATTERN.matcher(text);
-        int lastEnd = 0;
-        NamedTextColor currentColor = NamedTextColor.WHITE;
-        Component result = Component.empty();
-
-        while (matcher.find()) {
-            builder.append(text, lastEnd, matcher.start());
-            if (!builder.isEmpty()) {
-                result = result.append(Component.text(builder.toString(), currentColor));
-                builder.setLength(0);
-            }
-
-            char code = matcher.group(1).toLowerCase().charAt(0);
-            currentColor = getColorFromCode(code);
-            lastEnd = matcher.end();
+    private Component getCooldownMessage(long remaining) {
+        int tenths = (int) Math.min((remaining + 50) / 100, Integer.MAX_VALUE);
+        if (tenths >= cooldownMessages.length) {
+            return plugin.getTextCompiler().compileUncached(formatCooldownMessage(tenths));
         }
 
-        builder.append(text.substring(lastEnd));
-        if (!builder.isEmpty()) {
-            result = result.append(Component.text(builder.toString(), currentColor));
+        Component message = cooldownMessages[tenths];
+        if (message == null) {
+            message = plugin.getTextCompiler().compileUncached(formatCooldownMessage(tenths));
+            cooldownMessages[tenths] = message;
         }
-
-        return result;
+        return message;
     }
 
     /**
-     * Maps legacy color codes to NamedTextColor.
+     * Formats the cooldown message text.
      *
-     * @param code the color code character
-     * @return the corresponding NamedTextColor
+     * @param tenths the remaining cooldown in tenths of a second
+     * @return the message with legacy color codes
      */
-    private NamedTextColor getColorFromCode(char code) {
-        return switch (code) {
-            case '0' -> NamedTextColor.BLACK;
-            case '1' -> NamedTextColor.DARK_BLUE;
-            case '2' -> NamedTextColor.DARK_GREEN;
-            case '3' -> NamedTextColor.DARK_AQUA;
-            case '4' -> NamedTextColor.DARK_RED;
-            case '5' -> NamedTextColor.DARK_PURPLE;
-            case '6' -> NamedTextColor.GOLD;
-            case '7' -> NamedTextColor.GRAY;
-            case '8' -> NamedTextColor.DARK_GRAY;
-            case '9' -> NamedTextColor.BLUE;
-            case 'a' -> NamedTextColor.GREEN;
-            case 'b' -> NamedTextColor.AQUA;
-            case 'c' -> NamedTextColor.RED;
-            case 'd' -> NamedTextColor.LIGHT_PURPLE;
-            case 'e' -> NamedTextColor.YELLOW;
-            case 'f' -> NamedTextColor.WHITE;
-            default -> NamedTextColor.WHITE;
-        };
+    private String formatCooldownMessage(int tenths) {
+        return String.format("&cAbility on cooldown! %.1fs remaining", tenths / 10.0);
     }
 
     /**
-     * Sends a message to the player.
+     * Sends a cooldown message to the player.
      *
      * @param player the player to receive the message
      * @param message the message to send
+     * @param actionBar whether to show the message on the action bar instead of the chat
      */
-    private void sendMessage(Player player, Component message) {
-        player.sendMessage(message);
+    private void sendCooldownMessage(Player player, Component message, boolean actionBar) {
+        if (actionBar) {
+            player.sendActionBar(message);
+        } else {
+            player.sendMessage(message);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package carnage.cAbilityStones.listeners;
+
+import carnage.cAbilityStones.managers.TargetIndex;
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.Location;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityTeleportEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Feeds entity spawns, despawns, teleports and player movement into the target index.
+ * <p>
+ * Ordinary mob movement is left to the index's periodic resync, as listening for it makes the
+ * server fire an event for every moving mob on every tick; {@link EntityMoveListener} adds it
+ * when enabled. Moves between worlds are left to the despawn and spawn events, which fire for
+ * the old and the new world respectively.
+ */
+public class TargetIndexListener implements Listener {
+    private final TargetIndex targetIndex;
+
+    public TargetIndexListener(TargetIndex targetIndex) {
+        this.targetIndex = targetIndex;
+    }
+
+    /**
+     * Tracks living entities added to a world.
+     *
+     * @param event the entity add event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event) {
+        if (event.getEntity() instanceof LivingEntity entity) {
+            targetIndex.track(entity);
+        }
+    }
+
+    /**
+     * Stops tracking living entities removed from a world.
+     *
+     * @param event the entity remove event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof LivingEntity entity) {
+            targetIndex.untrack(entity);
+        }
+    }
+
+    /**
+     * Updates the position of a moving or teleporting player.
+     *
+     * @param event the player move event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        move(event.getPlayer(), event.getFrom(), event.getTo());
+    }
+
+    /**
+     * Updates the position of a teleporting non-player entity.
+     *
+     * @param event the entity teleport event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityTeleport(EntityTeleportEvent event) {
+        if (event.getEntity() instanceof LivingEntity entity && event.getTo() != null) {
+            move(entity, event.getFrom(), event.getTo());
+        }
+    }
+
+    /**
+     * Drops the index of an unloaded world.
+     *
+     * @param event the world unload event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        targetIndex.unloadWorld(event.getWorld());
+    }
+
+    /**
+     * Applies a move within one world to the index.
+     *
+     * @param entity the entity that moved
+     * @param from the previous position
+     * @param to the new position
+     */
+    private void move(LivingEntity entity, Location from, Location to) {
+        if (from.getWorld() == to.getWorld()) {
+            targetIndex.move(entity, to);
+        }
+    }
+}
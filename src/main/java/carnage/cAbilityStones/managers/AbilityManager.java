@@ -5,19 +5,29 @@ import carnage.cAbilityStones.abilities.*;
 import carnage.cAbilityStones.models.StoneType;
 import org.bukkit.entity.Player;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Manages the registration and activation of ability stones.
+ * <p>
+ * A stone whose configuration defines a program runs it instead of its built-in ability. An
+ * ability that hands its work to the {@link TargetingPipeline} only knows its outcome a tick
+ * later; its activation is then deferred, and its outcome recorded and its cooldown rolled back
+ * once the pipeline applies it.
  */
 public class AbilityManager {
     private final CAbilityStones plugin;
     private final Map<StoneType, Ability> abilities;
+    private final Map<StoneType, Ability> programs;
+    private final ThreadLocal<Activation> current;
 
     public AbilityManager(CAbilityStones plugin) {
         this.plugin = plugin;
         this.abilities = new HashMap<>();
+        this.programs = new EnumMap<>(StoneType.class);
+        this.current = new ThreadLocal<>();
         registerAbilities();
     }
 
@@ -31,27 +41,104 @@ public class AbilityManager {
         abilities.put(StoneType.AIR, new DashForwardAbility(plugin));
         abilities.put(StoneType.LIGHTNING, new ChainLightningAbility(plugin));
         abilities.put(StoneType.DARKNESS, new ShadowCurseAbility(plugin));
+        for (StoneType type : StoneType.values()) {
+            programs.put(type, new ProgramAbility(plugin, type));
+        }
     }
 
     /**
-     * Activates an ability for the specified player and stone type.
+     * Activates an ability for the specified player and stone type, whose cooldown was just
+     * started by {@link CooldownManager#tryAcquire}. Its outcome and latency are recorded and its
+     * cooldown rolled back if it fails, right away or, for a deferred activation, once applied.
      *
      * @param player the player activating the ability
      * @param type the type of stone
-     * @return true if the ability was activated successfully
+     * @param cooldown the duration passed to {@code tryAcquire}
+     * @param now the time passed to {@code tryAcquire}
+     * @return true if the ability was activated or deferred
      */
-    public boolean activateAbility(Player player, StoneType type) {
-        Ability ability = abilities.get(type);
-        return ability != null && ability.activate(player);
+    public boolean activateAbility(Player player, StoneType type, long cooldown, long now) {
+        Ability ability = getAbility(type);
+        if (ability == null) {
+            plugin.getCooldownManager().rollback(player.getUniqueId(), type, cooldown, now);
+            return false;
+        }
+
+        Activation activation = new Activation(player, type, cooldown, now);
+        current.set(activation);
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = ability.activate(player);
+        } finally {
+            current.remove();
+        }
+        activation.nanos = System.nanoTime() - start;
+        if (!activation.deferred) {
+            complete(activation, success, 0);
+        }
+        return success;
+    }
+
+    /**
+     * Marks the activation running on this thread as deferred, so its outcome is only recorded
+     * when {@link #complete} is called for it.
+     *
+     * @return the activation, or null if the ability was not started through this manager
+     */
+    Activation defer() {
+        Activation activation = current.get();
+        if (activation != null) {
+            activation.deferred = true;
+        }
+        return activation;
+    }
+
+    /**
+     * Records the outcome of an activation and rolls back its cooldown if it failed.
+     *
+     * @param activation the activation
+     * @param success whether the ability succeeded
+     * @param nanos the time spent applying a deferred activation, added to its latency
+     */
+    void complete(Activation activation, boolean success, long nanos) {
+        plugin.getMetricsManager().recordActivation(activation.type, success, activation.nanos + nanos);
+        if (success) {
+            plugin.getStatsManager().recordActivation(activation.player, activation.type);
+        } else {
+            plugin.getCooldownManager().rollback(activation.player.getUniqueId(), activation.type, activation.cooldown, activation.now);
+        }
     }
 
     /**
      * Gets the ability associated with the stone type.
      *
      * @param type the stone type
-     * @return the ability, or null if not found
+     * @return the configured program or the built-in ability, or null if not found
      */
     public Ability getAbility(StoneType type) {
+        if (plugin.getSettingsManager().getProgram(type) != null) {
+            return programs.get(type);
+        }
         return abilities.get(type);
     }
-}
\ No newline at end of file
+
+    /**
+     * One ability activation and the cooldown it was granted.
+     */
+    static final class Activation {
+        private final Player player;
+        private final StoneType type;
+        private final long cooldown;
+        private final long now;
+        private long nanos;
+        private boolean deferred;
+
+        private Activation(Player player, StoneType type, long cooldown, long now) {
+            this.player = player;
+            this.type = type;
+            this.cooldown = cooldown;
+            this.now = now;
+        }
+    }
+}
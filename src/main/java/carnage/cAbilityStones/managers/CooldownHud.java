@@ -0,0 +1,339 @@
+package carnage.cAbilityStones.managers;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.utils.SchedulerAdapter;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shows players their running cooldowns on the action bar or a boss bar.
+ * <p>
+ * One shared task updates every player that has a cooldown running. Players are added when a
+ * cooldown starts and dropped once all of theirs have expired, so players without cooldowns cost
+ * nothing. A player's display is only rebuilt and sent when one of its values, shown in tenths of
+ * a second, has changed since the last update. The text shown for each value is compiled once
+ * and reused for every player.
+ */
+public class CooldownHud implements Runnable {
+    private static final StoneType[] TYPES = StoneType.values();
+
+    private final CAbilityStones plugin;
+    private final SchedulerAdapter scheduler;
+    private final CooldownManager cooldownManager;
+    private final Map<UUID, Entry> entries;
+    private SchedulerAdapter.Task task;
+    private Mode mode;
+    private long interval;
+    private String format;
+    private Component separator;
+    private Component[][] segments;
+
+    public CooldownHud(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getSchedulerAdapter();
+        this.cooldownManager = plugin.getCooldownManager();
+        this.entries = new ConcurrentHashMap<>();
+        readConfig();
+    }
+
+    /**
+     * Reads the HUD settings and restarts the update task with them.
+     */
+    public void reload() {
+        boolean running = task != null;
+        shutdown();
+        readConfig();
+        if (running) {
+            start();
+        }
+    }
+
+    /**
+     * Reads the HUD settings from the configuration.
+     */
+    private void readConfig() {
+        mode = Mode.parse(plugin.getConfig().getString("hud.mode", "none"));
+        interval = Math.max(1, plugin.getConfig().getLong("hud.interval_ticks", 2));
+        format = plugin.getConfig().getString("hud.format", "&e{ability} &f{time}s");
+        separator = plugin.getTextCompiler().compile(plugin.getConfig().getString("hud.separator", " &7| "));
+        segments = new Component[TYPES.length][0];
+    }
+
+    /**
+     * Starts the shared update task if the HUD is enabled.
+     */
+    public void start() {
+        if (task == null && mode != Mode.NONE) {
+            task = scheduler.runTimer(this, interval, interval);
+        }
+    }
+
+    /**
+     * Stops the update task and clears every shown HUD.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (Entry entry : entries.values()) {
+            entry.hide();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Starts showing a player's cooldowns, called after one of them has started.
+     *
+     * @param player the player
+     */
+    public void track(Player player) {
+        if (task != null) {
+            entries.putIfAbsent(player.getUniqueId(), new Entry(player));
+        }
+    }
+
+    /**
+     * Stops showing a player's cooldowns.
+     *
+     * @param player the player's UUID
+     */
+    public void untrack(UUID player) {
+        Entry entry = entries.remove(player);
+        if (entry != null) {
+            entry.hide();
+        }
+    }
+
+    /**
+     * Gets the number of players whose cooldowns are being shown.
+     *
+     * @return the tracked player count
+     */
+    public int getTrackedCount() {
+        return entries.size();
+    }
+
+    /**
+     * Updates the HUD of every tracked player and drops those without running cooldowns.
+     */
+    @Override
+    public void run() {
+        long now = cooldownManager.now();
+        Iterator<Map.Entry<UUID, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Entry> mapping = iterator.next();
+            Entry entry = mapping.getValue();
+            if (!entry.player.isOnline()) {
+                iterator.remove();
+                continue;
+            }
+            if (entry.update(mapping.getKey(), now)) {
+                continue;
+            }
+
+            iterator.remove();
+            entry.hide();
+            if (hasCooldown(mapping.getKey(), cooldownManager.now())) {
+                entries.putIfAbsent(mapping.getKey(), new Entry(entry.player));
+            }
+        }
+    }
+
+    /**
+     * Checks whether a player has any cooldown running.
+     * <p>
+     * Used after dropping a player, as {@link #track} may have found the old entry just before
+     * its removal.
+     *
+     * @param player the player's UUID
+     * @param now the current time from {@link CooldownManager#now()}
+     * @return true if a cooldown is running
+     */
+    private boolean hasCooldown(UUID player, long now) {
+        for (StoneType type : TYPES) {
+            if (cooldownManager.getRemainingCooldown(player, type, now) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the text shown for one cooldown, compiling each value only once.
+     *
+     * @param type the stone type
+     * @param tenths the shown value in tenths of a second
+     * @return the compiled text
+     */
+    private Component getSegment(StoneType type, int tenths) {
+        Component[] cached = segments[type.ordinal()];
+        if (tenths >= cached.length) {
+            cached = Arrays.copyOf(cached, Math.max(tenths + 1, cached.length * 2));
+            segments[type.ordinal()] = cached;
+        }
+
+        Component segment = cached[tenths];
+        if (segment == null) {
+            segment = plugin.getTextCompiler().compileUncached(format
+                    .replace("{ability}", plugin.getSettingsManager().get(type).getName())
+                    .replace("{time}", (tenths / 10) + "." + (tenths % 10)));
+            cached[tenths] = segment;
+        }
+        return segment;
+    }
+
+    /**
+     * Converts a remaining cooldown to the tenths of a second shown for it, rounding up so that
+     * a running cooldown never shows zero.
+     *
+     * @param remaining the remaining cooldown in milliseconds
+     * @return the shown value in tenths of a second
+     */
+    private static int toTenths(long remaining) {
+        return (int) Math.min((remaining + 99) / 100, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Where the HUD is shown.
+     */
+    private enum Mode {
+        NONE, ACTION_BAR, BOSS_BAR;
+
+        /**
+         * Parses a configured mode, treating unknown values as disabled.
+         *
+         * @param value the configured value
+         * @return the mode
+         */
+        static Mode parse(String value) {
+            try {
+                return value == null ? NONE : valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return NONE;
+            }
+        }
+    }
+
+    /**
+     * The HUD state of one player, only touched by the update task.
+     */
+    private final class Entry {
+        private final Player player;
+        private final int[] shown;
+        private BossBar bar;
+        private boolean visible;
+
+        private Entry(Player player) {
+            this.player = player;
+            this.shown = new int[TYPES.length];
+        }
+
+        /**
+         * Reads the player's cooldowns and sends the HUD if a shown value changed.
+         *
+         * @param id the player's UUID
+         * @param now the current time from {@link CooldownManager#now()}
+         * @return false once no cooldown is running
+         */
+        private boolean update(UUID id, long now) {
+            boolean dirty = false;
+            boolean running = false;
+            float progress = 0;
+            for (StoneType type : TYPES) {
+                long remaining = cooldownManager.getRemainingCooldown(id, type, now);
+                int tenths = toTenths(remaining);
+                if (tenths != shown[type.ordinal()]) {
+                    shown[type.ordinal()] = tenths;
+                    dirty = true;
+                }
+                if (tenths > 0) {
+                    running = true;
+                    long cooldown = plugin.getSettingsManager().get(type).getCooldown();
+                    progress = Math.max(progress, cooldown > 0 ? Math.min(1f, (float) remaining / cooldown) : 1f);
+                }
+            }
+            if (!running) {
+                return false;
+            }
+            if (dirty) {
+                show(render(), progress);
+            }
+            return true;
+        }
+
+        /**
+         * Builds the HUD text from the shown values.
+         *
+         * @return the HUD text, a shared component when a single cooldown is running
+         */
+        private Component render() {
+            Component first = null;
+            TextComponent.Builder builder = null;
+            for (StoneType type : TYPES) {
+                int tenths = shown[type.ordinal()];
+                if (tenths == 0) {
+                    continue;
+                }
+
+                Component segment = getSegment(type, tenths);
+                if (first == null) {
+                    first = segment;
+                } else {
+                    if (builder == null) {
+                        builder = Component.text().append(first);
+                    }
+                    builder.append(separator).append(segment);
+                }
+            }
+            return builder == null ? first : builder.build();
+        }
+
+        /**
+         * Sends the HUD to the player.
+         *
+         * @param component the HUD text
+         * @param progress the boss bar progress, the largest remaining share of a cooldown
+         */
+        private void show(Component component, float progress) {
+            visible = true;
+            if (mode != Mode.BOSS_BAR) {
+                player.sendActionBar(component);
+                return;
+            }
+            if (bar == null) {
+                bar = BossBar.bossBar(component, progress, BossBar.Color.YELLOW, BossBar.Overlay.PROGRESS);
+                player.showBossBar(bar);
+            } else {
+                bar.name(component);
+                bar.progress(progress);
+            }
+        }
+
+        /**
+         * Removes the HUD from the player if anything was shown.
+         */
+        private void hide() {
+            if (!visible) {
+                return;
+            }
+            visible = false;
+            if (bar != null) {
+                player.hideBossBar(bar);
+                bar = null;
+            } else if (player.isOnline()) {
+                player.sendActionBar(Component.empty());
+            }
+        }
+    }
+}
@@ -1,19 +1,41 @@
 package carnage.cAbilityStones.managers;
 
 import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.storage.CooldownJournal;
+import carnage.cAbilityStones.storage.CooldownStore;
+import carnage.cAbilityStones.storage.MemoryCooldownStore;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
 /**
  * Manages cooldowns for ability stones on a per-player basis.
+ * <p>
+ * Cooldowns are held by a {@link CooldownStore}, by default a {@link MemoryCooldownStore} local
+ * to this server, and changes are optionally recorded to a {@link CooldownJournal}. Timestamps
+ * come from the store's monotonic clock, {@link #now()}. All methods are safe to call from
+ * several region threads at once.
  */
 public class CooldownManager {
-    private final Map<UUID, Map<StoneType, Long>> cooldowns;
+    private final CooldownStore store;
+    private volatile CooldownJournal journal;
 
     public CooldownManager() {
-        this.cooldowns = new HashMap<>();
+        this(new MemoryCooldownStore());
+    }
+
+    public CooldownManager(CooldownStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Reads the monotonic clock used for all cooldown timestamps. Callers that perform
+     * several cooldown operations for one activation should read it once and pass it on.
+     *
+     * @return the current time in nanoseconds, always positive
+     */
+    public long now() {
+        return store.now();
     }
 
     /**
@@ -24,33 +46,77 @@ public class CooldownManager {
      * @param duration the cooldown duration in milliseconds
      */
     public void setCooldown(UUID player, StoneType type, long duration) {
-        cooldowns.computeIfAbsent(player, k -> new HashMap<>()).put(type, System.currentTimeMillis() + duration);
+        setCooldown(player, type, duration, now());
     }
 
     /**
-     * Checks if a player has an active cooldown for a stone type.
+     * Sets a cooldown for a player and stone type using an already sampled clock value.
      *
      * @param player the player's UUID
      * @param type the stone type
-     * @return true if the player is on cooldown
+     * @param duration the cooldown duration in milliseconds
+     * @param now the current time from {@link #now()}
      */
-    public boolean hasCooldown(UUID player, StoneType type) {
-        Map<StoneType, Long> playerCooldowns = cooldowns.get(player);
-        if (playerCooldowns == null) {
-            return false;
+    public void setCooldown(UUID player, StoneType type, long duration, long now) {
+        store.set(player, type, duration, now);
+        CooldownJournal journal = this.journal;
+        if (journal != null) {
+            journal.record(player, type, System.currentTimeMillis() + duration);
         }
+    }
 
-        Long expiry = playerCooldowns.get(type);
-        if (expiry == null) {
-            return false;
+    /**
+     * Starts a cooldown unless one is already running, as a single atomic step.
+     * <p>
+     * Of several concurrent callers for the same player and stone type, exactly one is granted.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param duration the cooldown duration in milliseconds
+     * @param now the current time from {@link #now()}
+     * @return 0 if the cooldown was started, otherwise the remaining cooldown in milliseconds
+     */
+    public long tryAcquire(UUID player, StoneType type, long duration, long now) {
+        long remaining = store.tryAcquire(player, type, duration, now);
+        if (remaining > 0) {
+            return remaining;
         }
 
-        if (System.currentTimeMillis() >= expiry) {
-            playerCooldowns.remove(type);
-            return false;
+        CooldownJournal journal = this.journal;
+        if (journal != null) {
+            journal.record(player, type, System.currentTimeMillis() + duration);
         }
+        return 0;
+    }
 
-        return true;
+    /**
+     * Undoes a cooldown granted by {@link #tryAcquire}, for an ability that then failed to activate.
+     * Has no effect if the cooldown was replaced since.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param duration the duration passed to {@code tryAcquire}
+     * @param now the time passed to {@code tryAcquire}
+     */
+    public void rollback(UUID player, StoneType type, long duration, long now) {
+        if (!store.rollback(player, type, duration, now)) {
+            return;
+        }
+        CooldownJournal journal = this.journal;
+        if (journal != null) {
+            journal.record(player, type, 0);
+        }
+    }
+
+    /**
+     * Checks if a player has an active cooldown for a stone type.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @return true if the player is on cooldown
+     */
+    public boolean hasCooldown(UUID player, StoneType type) {
+        return getRemainingCooldown(player, type, now()) > 0;
     }
 
     /**
@@ -61,18 +127,70 @@ public class CooldownManager {
      * @return the remaining cooldown in milliseconds, or 0 if none
      */
     public long getRemainingCooldown(UUID player, StoneType type) {
-        Map<StoneType, Long> playerCooldowns = cooldowns.get(player);
-        if (playerCooldowns == null) {
-            return 0;
-        }
+        return getRemainingCooldown(player, type, now());
+    }
 
-        Long expiry = playerCooldowns.get(type);
-        if (expiry == null) {
-            return 0;
-        }
+    /**
+     * Gets the remaining cooldown time for a player and stone type using an already sampled clock value.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param now the current time from {@link #now()}
+     * @return the remaining cooldown in milliseconds, or 0 if none
+     */
+    public long getRemainingCooldown(UUID player, StoneType type, long now) {
+        return store.getRemaining(player, type, now);
+    }
 
-        long remaining = expiry - System.currentTimeMillis();
-        return Math.max(0, remaining);
+    /**
+     * Enables write-behind persistence of cooldown changes.
+     *
+     * @param journal the journal to record changes to, or null to disable persistence
+     */
+    public void setJournal(CooldownJournal journal) {
+        this.journal = journal;
     }
 
-}
\ No newline at end of file
+    /**
+     * Gets the store holding the cooldowns.
+     *
+     * @return the cooldown store
+     */
+    public CooldownStore getStore() {
+        return store;
+    }
+
+    /**
+     * Loads persisted cooldowns into the archive so they are restored when the players join.
+     *
+     * @param wallExpiries wall-clock expiry tables in milliseconds, indexed by stone ordinal
+     */
+    public void load(Map<UUID, long[]> wallExpiries) {
+        store.load(wallExpiries);
+    }
+
+    /**
+     * Restores a player's archived cooldowns when they join.
+     *
+     * @param player the player's UUID
+     */
+    public void restore(UUID player) {
+        store.restore(player);
+    }
+
+    /**
+     * Removes a player's cooldown table when they quit, archiving it only if a cooldown is still active.
+     *
+     * @param player the player's UUID
+     */
+    public void archive(UUID player) {
+        store.archive(player);
+    }
+
+    /**
+     * Sends pending changes and releases the store's resources.
+     */
+    public void shutdown() {
+        store.close();
+    }
+}
@@ -0,0 +1,79 @@
+package carnage.cAbilityStones.managers;
+
+import java.util.Map;
+
+/**
+ * Management view of the plugin metrics, registered as
+ * {@code carnage.cAbilityStones:type=Metrics}.
+ */
+public interface MetricsMXBean {
+    /**
+     * Gets the successful activations per stone type.
+     *
+     * @return the activation counts keyed by stone type name
+     */
+    Map<String, Long> getActivations();
+
+    /**
+     * Gets the activations that failed, for example for lack of targets, per stone type.
+     *
+     * @return the failure counts keyed by stone type name
+     */
+    Map<String, Long> getFailedActivations();
+
+    /**
+     * Gets the activation attempts rejected by a cooldown per stone type.
+     *
+     * @return the rejection counts keyed by stone type name
+     */
+    Map<String, Long> getCooldownRejections();
+
+    /**
+     * Gets the activation attempts dropped by the rate limit.
+     *
+     * @return the dropped attempt count
+     */
+    long getRateLimited();
+
+    /**
+     * Gets the approximate median activation latency.
+     *
+     * @return the median latency in microseconds
+     */
+    double getActivationLatencyP50Micros();
+
+    /**
+     * Gets the approximate 99th percentile activation latency.
+     *
+     * @return the 99th percentile latency in microseconds
+     */
+    double getActivationLatencyP99Micros();
+
+    /**
+     * Gets the average time of an effect tick.
+     *
+     * @return the mean effect tick time in microseconds
+     */
+    double getEffectTickMeanMicros();
+
+    /**
+     * Gets the number of running effects.
+     *
+     * @return the active effect count
+     */
+    int getActiveEffects();
+
+    /**
+     * Gets the entities spawned for effects.
+     *
+     * @return the spawned entity count
+     */
+    long getEntitiesSpawned();
+
+    /**
+     * Gets the particles sent to players.
+     *
+     * @return the sent particle count
+     */
+    long getParticlesSpawned();
+}
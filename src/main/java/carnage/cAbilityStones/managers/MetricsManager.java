@@ -0,0 +1,426 @@
+package carnage.cAbilityStones.managers;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.models.StoneType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+
+/**
+ * Records what the plugin does and how long it takes.
+ * <p>
+ * Every value is a slot in a preallocated {@link AtomicLongArray}, so recording is a single
+ * atomic add without locks or allocation and may happen on any thread. Latencies go into
+ * histograms with one bucket per power of two nanoseconds. The numbers are read through
+ * {@code /stone stats}, JMX and, if enabled, a text exposition endpoint on a local port.
+ */
+public class MetricsManager implements MetricsMXBean {
+    private static final String OBJECT_NAME = "carnage.cAbilityStones:type=Metrics";
+    private static final int BUCKETS = 32;
+    private static final int TYPES = StoneType.values().length;
+
+    private static final int ACTIVATIONS = 0;
+    private static final int FAILURES = ACTIVATIONS + TYPES;
+    private static final int COOLDOWN_REJECTIONS = FAILURES + TYPES;
+    private static final int RATE_LIMITED = COOLDOWN_REJECTIONS + TYPES;
+    private static final int ENTITIES_SPAWNED = RATE_LIMITED + 1;
+    private static final int PARTICLES_SPAWNED = ENTITIES_SPAWNED + 1;
+    private static final int EFFECT_TICKS = PARTICLES_SPAWNED + 1;
+    private static final int EFFECT_TICK_NANOS = EFFECT_TICKS + 1;
+    private static final int ACTIVATION_NANOS = EFFECT_TICK_NANOS + 1;
+    private static final int COUNTERS = ACTIVATION_NANOS + 1;
+
+    private final CAbilityStones plugin;
+    private final AtomicLongArray counters;
+    private final AtomicLongArray activationLatency;
+    private final AtomicLongArray effectTickLatency;
+    private ObjectName objectName;
+    private HttpServer httpServer;
+
+    public MetricsManager(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.counters = new AtomicLongArray(COUNTERS);
+        this.activationLatency = new AtomicLongArray(BUCKETS);
+        this.effectTickLatency = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Registers the MBean and starts the HTTP endpoint as configured.
+     */
+    public void start() {
+        if (plugin.getConfig().getBoolean("metrics.jmx", true)) {
+            registerMBean();
+        }
+        if (plugin.getConfig().getBoolean("metrics.http_enabled", false)) {
+            startHttpServer(plugin.getConfig().getString("metrics.http_bind", "127.0.0.1"),
+                    plugin.getConfig().getInt("metrics.http_port", 9464));
+        }
+    }
+
+    /**
+     * Unregisters the MBean and stops the HTTP endpoint.
+     */
+    public void shutdown() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not unregister the metrics MBean", e);
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Records a finished activation attempt.
+     *
+     * @param type the stone type
+     * @param success whether the ability activated
+     * @param nanos the time the activation took
+     */
+    public void recordActivation(StoneType type, boolean success, long nanos) {
+        counters.incrementAndGet((success ? ACTIVATIONS : FAILURES) + type.ordinal());
+        counters.addAndGet(ACTIVATION_NANOS, nanos);
+        activationLatency.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * Records an activation attempt rejected by a cooldown.
+     *
+     * @param type the stone type
+     */
+    public void recordCooldownRejection(StoneType type) {
+        counters.incrementAndGet(COOLDOWN_REJECTIONS + type.ordinal());
+    }
+
+    /**
+     * Records an activation attempt dropped by the rate limit.
+     */
+    public void recordRateLimited() {
+        counters.incrementAndGet(RATE_LIMITED);
+    }
+
+    /**
+     * Records the time spent updating effects.
+     *
+     * @param nanos the time the effect tick took
+     */
+    public void recordEffectTick(long nanos) {
+        counters.incrementAndGet(EFFECT_TICKS);
+        counters.addAndGet(EFFECT_TICK_NANOS, nanos);
+        effectTickLatency.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * Records an entity spawned for an effect.
+     */
+    public void recordEntitySpawned() {
+        counters.incrementAndGet(ENTITIES_SPAWNED);
+    }
+
+    /**
+     * Records particles sent to players.
+     *
+     * @param count the number of particles
+     */
+    public void recordParticles(long count) {
+        if (count > 0) {
+            counters.addAndGet(PARTICLES_SPAWNED, count);
+        }
+    }
+
+    /**
+     * Gets the successful activations of a stone type.
+     *
+     * @param type the stone type
+     * @return the activation count
+     */
+    public long getActivations(StoneType type) {
+        return counters.get(ACTIVATIONS + type.ordinal());
+    }
+
+    /**
+     * Gets the failed activations of a stone type.
+     *
+     * @param type the stone type
+     * @return the failure count
+     */
+    public long getFailedActivations(StoneType type) {
+        return counters.get(FAILURES + type.ordinal());
+    }
+
+    /**
+     * Gets the cooldown rejections of a stone type.
+     *
+     * @param type the stone type
+     * @return the rejection count
+     */
+    public long getCooldownRejections(StoneType type) {
+        return counters.get(COOLDOWN_REJECTIONS + type.ordinal());
+    }
+
+    @Override
+    public Map<String, Long> getActivations() {
+        return perType(ACTIVATIONS);
+    }
+
+    @Override
+    public Map<String, Long> getFailedActivations() {
+        return perType(FAILURES);
+    }
+
+    @Override
+    public Map<String, Long> getCooldownRejections() {
+        return perType(COOLDOWN_REJECTIONS);
+    }
+
+    @Override
+    public long getRateLimited() {
+        return counters.get(RATE_LIMITED);
+    }
+
+    @Override
+    public double getActivationLatencyP50Micros() {
+        return quantile(activationLatency, 0.5) / 1000.0;
+    }
+
+    @Override
+    public double getActivationLatencyP99Micros() {
+        return quantile(activationLatency, 0.99) / 1000.0;
+    }
+
+    @Override
+    public double getEffectTickMeanMicros() {
+        long ticks = counters.get(EFFECT_TICKS);
+        return ticks == 0 ? 0 : counters.get(EFFECT_TICK_NANOS) / 1000.0 / ticks;
+    }
+
+    @Override
+    public int getActiveEffects() {
+        return plugin.getEffectEngine().getActiveCount();
+    }
+
+    @Override
+    public long getEntitiesSpawned() {
+        return counters.get(ENTITIES_SPAWNED);
+    }
+
+    @Override
+    public long getParticlesSpawned() {
+        return counters.get(PARTICLES_SPAWNED);
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     *
+     * @return the exposition text
+     */
+    public String export() {
+        StringBuilder out = new StringBuilder(4096);
+        writeTypeCounter(out, "abilitystones_activations_total", "Successful ability activations", ACTIVATIONS);
+        writeTypeCounter(out, "abilitystones_activation_failures_total", "Ability activations that did not take effect", FAILURES);
+        writeTypeCounter(out, "abilitystones_cooldown_rejections_total", "Activation attempts rejected by a cooldown", COOLDOWN_REJECTIONS);
+        writeCounter(out, "abilitystones_rate_limited_total", "Activation attempts dropped by the rate limit", RATE_LIMITED);
+        writeCounter(out, "abilitystones_entities_spawned_total", "Entities spawned for effects", ENTITIES_SPAWNED);
+        writeCounter(out, "abilitystones_particles_spawned_total", "Particles sent to players", PARTICLES_SPAWNED);
+
+        out.append("# HELP abilitystones_active_effects Running effects\n");
+        out.append("# TYPE abilitystones_active_effects gauge\n");
+        out.append("abilitystones_active_effects ").append(getActiveEffects()).append('\n');
+
+        writeHistogram(out, "abilitystones_activation_seconds", "Time spent activating abilities",
+                activationLatency, counters.get(ACTIVATION_NANOS));
+        writeHistogram(out, "abilitystones_effect_tick_seconds", "Time spent updating effects",
+                effectTickLatency, counters.get(EFFECT_TICK_NANOS));
+        return out.toString();
+    }
+
+    /**
+     * Registers this object with the platform MBean server.
+     */
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not register the metrics MBean", e);
+        }
+    }
+
+    /**
+     * Starts serving the exposition text on {@code /metrics}.
+     *
+     * @param bind the address to listen on
+     * @param port the port to listen on
+     */
+    private void startHttpServer(String bind, int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(bind, port), 0);
+            httpServer.createContext("/metrics", this::handle);
+            httpServer.start();
+            plugin.getLogger().info("Serving metrics on http://" + bind + ":" + port + "/metrics");
+        } catch (IOException e) {
+            httpServer = null;
+            plugin.getLogger().log(Level.WARNING, "Could not start the metrics endpoint on " + bind + ":" + port, e);
+        }
+    }
+
+    /**
+     * Answers a request to the metrics endpoint.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = export().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream stream = exchange.getResponseBody()) {
+                stream.write(body);
+            }
+        }
+    }
+
+    /**
+     * Copies a per-type counter block into a map.
+     *
+     * @param offset the first counter of the block
+     * @return the counts keyed by stone type name
+     */
+    private Map<String, Long> perType(int offset) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (StoneType type : StoneType.values()) {
+            values.put(type.name(), counters.get(offset + type.ordinal()));
+        }
+        return values;
+    }
+
+    /**
+     * Writes a counter with one series per stone type.
+     *
+     * @param out the output
+     * @param name the metric name
+     * @param help the metric description
+     * @param offset the first counter of the block
+     */
+    private void writeTypeCounter(StringBuilder out, String name, String help, int offset) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        for (StoneType type : StoneType.values()) {
+            out.append(name).append("{stone=\"").append(type.name().toLowerCase(Locale.ROOT)).append("\"} ")
+                    .append(counters.get(offset + type.ordinal())).append('\n');
+        }
+    }
+
+    /**
+     * Writes a single counter.
+     *
+     * @param out the output
+     * @param name the metric name
+     * @param help the metric description
+     * @param index the counter index
+     */
+    private void writeCounter(StringBuilder out, String name, String help, int index) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(counters.get(index)).append('\n');
+    }
+
+    /**
+     * Writes a histogram with cumulative buckets bounded by powers of two nanoseconds.
+     *
+     * @param out the output
+     * @param name the metric name
+     * @param help the metric description
+     * @param histogram the bucket counts
+     * @param sumNanos the sum of the recorded values in nanoseconds
+     */
+    private void writeHistogram(StringBuilder out, String name, String help, AtomicLongArray histogram, long sumNanos) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            cumulative += histogram.get(i);
+            out.append(name).append("_bucket{le=\"").append(upperBound(i) / 1e9).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += histogram.get(BUCKETS - 1);
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum ").append(sumNanos / 1e9).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+    }
+
+    /**
+     * Estimates a quantile as the upper bound of the bucket that contains it.
+     *
+     * @param histogram the bucket counts
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimate in nanoseconds, or 0 if nothing was recorded
+     */
+    private static long quantile(AtomicLongArray histogram, double quantile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += histogram.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Gets the histogram bucket of a duration: bucket i holds values below 2^(i+1) nanoseconds.
+     *
+     * @param nanos the duration
+     * @return the bucket index
+     */
+    private static int bucket(long nanos) {
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+    }
+
+    /**
+     * Gets the exclusive upper bound of a histogram bucket.
+     *
+     * @param bucket the bucket index
+     * @return the bound in nanoseconds
+     */
+    private static long upperBound(int bucket) {
+        return 1L << (bucket + 1);
+    }
+}
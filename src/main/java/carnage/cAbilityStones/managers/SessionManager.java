@@ -0,0 +1,93 @@
+package carnage.cAbilityStones.managers;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.models.PlayerSession;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the sessions of online players, created on first use and dropped when the player quits,
+ * and applies the activation rate limit and cooldown message throttle to them.
+ */
+public class SessionManager {
+    private final CAbilityStones plugin;
+    private final Map<UUID, PlayerSession> sessions;
+    private double burst;
+    private double tokensPerNano;
+    private long messageInterval;
+    private boolean actionBar;
+
+    public SessionManager(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.sessions = new ConcurrentHashMap<>();
+        reload();
+    }
+
+    /**
+     * Reads the activation rate limit and cooldown message settings from the configuration.
+     */
+    public void reload() {
+        burst = plugin.getConfig().getDouble("activation.burst", 6);
+        double perSecond = plugin.getConfig().getDouble("activation.attempts_per_second", 4);
+        tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        messageInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0, plugin.getConfig().getLong("activation.cooldown_message_interval_ms", 500)));
+        actionBar = plugin.getConfig().getBoolean("activation.cooldown_action_bar", false);
+    }
+
+    /**
+     * Gets a player's session, creating it if needed.
+     *
+     * @param player the player
+     * @return the player's session
+     */
+    public PlayerSession get(Player player) {
+        return sessions.computeIfAbsent(player.getUniqueId(), k -> new PlayerSession());
+    }
+
+    /**
+     * Drops a player's session.
+     *
+     * @param player the player's UUID
+     */
+    public void remove(UUID player) {
+        sessions.remove(player);
+    }
+
+    /**
+     * Checks an activation attempt against the player's rate limit.
+     *
+     * @param session the player's session
+     * @param now the current time in nanoseconds
+     * @return true if the attempt may proceed, always true when the limit is disabled
+     */
+    public boolean tryActivate(PlayerSession session, long now) {
+        if (burst <= 0 || tokensPerNano <= 0) {
+            return true;
+        }
+        return session.tryAcquireActivation(now, burst, tokensPerNano);
+    }
+
+    /**
+     * Checks whether a cooldown message may be sent to the player now.
+     *
+     * @param session the player's session
+     * @param now the current time in nanoseconds
+     * @return true if the message should be sent
+     */
+    public boolean tryCooldownMessage(PlayerSession session, long now) {
+        return session.tryCooldownMessage(now, messageInterval);
+    }
+
+    /**
+     * Checks if cooldown messages go to the action bar instead of the chat.
+     *
+     * @return true to use the action bar
+     */
+    public boolean isCooldownActionBar() {
+        return actionBar;
+    }
+}
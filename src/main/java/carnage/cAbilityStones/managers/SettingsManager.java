@@ -0,0 +1,95 @@
+package carnage.cAbilityStones.managers;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.abilities.AbilityProgram;
+import carnage.cAbilityStones.models.AbilitySettings;
+import carnage.cAbilityStones.models.StoneType;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the current ability settings snapshot and swaps it atomically on reload.
+ * <p>
+ * The settings and programs of every stone live in one immutable snapshot published by a single
+ * volatile write, so a reader never sees a new program next to old settings or the reverse.
+ * <p>
+ * Stones with a {@code program} list also get it compiled here. A program that does not compile is
+ * logged and ignored, so the stone keeps its built-in ability.
+ */
+public class SettingsManager {
+    private final CAbilityStones plugin;
+    private volatile Snapshot snapshot;
+
+    public SettingsManager(CAbilityStones plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Builds a new snapshot from the configuration and publishes it in a single write.
+     */
+    public void reload() {
+        AbilitySettings[] loaded = new AbilitySettings[StoneType.values().length];
+        AbilityProgram[] compiled = new AbilityProgram[loaded.length];
+        for (StoneType type : StoneType.values()) {
+            String path = "stones." + type.name().toLowerCase();
+            ConfigurationSection section = plugin.getConfig().getConfigurationSection(path);
+            loaded[type.ordinal()] = AbilitySettings.load(type, section);
+            compiled[type.ordinal()] = compileProgram(path, section);
+        }
+        snapshot = new Snapshot(loaded, compiled);
+    }
+
+    /**
+     * Gets the current settings of a stone type's ability.
+     *
+     * @param type the stone type
+     * @return the settings snapshot
+     */
+    public AbilitySettings get(StoneType type) {
+        return snapshot.settings[type.ordinal()];
+    }
+
+    /**
+     * Gets the compiled program of a stone type's ability.
+     *
+     * @param type the stone type
+     * @return the program, or null if the stone uses its built-in ability
+     */
+    public AbilityProgram getProgram(StoneType type) {
+        return snapshot.programs[type.ordinal()];
+    }
+
+    /**
+     * Compiles the program of a stone, if it has one.
+     *
+     * @param path the stone's configuration path
+     * @param section the stone's configuration section, or null
+     * @return the program, or null if there is none or it is invalid
+     */
+    private AbilityProgram compileProgram(String path, ConfigurationSection section) {
+        if (section == null || !section.isList("program")) {
+            return null;
+        }
+
+        List<Map<?, ?>> steps = section.getMapList("program");
+        try {
+            return AbilityProgram.compile(steps, plugin.getTextCompiler());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Ignoring invalid " + path + ".program, " + e.getMessage() + "; using the built-in ability");
+            return null;
+        }
+    }
+
+    /**
+     * The settings and programs of every stone, indexed by {@link StoneType#ordinal()}. The arrays
+     * are never written after the snapshot is published.
+     *
+     * @param settings the settings of each stone
+     * @param programs the program of each stone, or null where it uses its built-in ability
+     */
+    private record Snapshot(AbilitySettings[] settings, AbilityProgram[] programs) {
+    }
+}
@@ -0,0 +1,260 @@
+package carnage.cAbilityStones.managers;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.models.UsageStat;
+import carnage.cAbilityStones.storage.StatsDatabase;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Records per-player and per-stone usage statistics and serves leaderboards.
+ * <p>
+ * Recording only adds a sample to a lock-free queue, so it is safe from any thread and never
+ * touches the database. A single virtual writer thread drains the queue periodically, sums the
+ * samples per player and stone, and adds them to the {@link StatsDatabase} in one transaction.
+ * The same thread reloads the leaderboards into memory at a longer interval, so commands read
+ * them without a query, at the cost of being up to one refresh behind.
+ */
+public class StatsManager {
+    private static final UsageStat[] STATS = UsageStat.values();
+    private static final StoneType[] TYPES = StoneType.values();
+
+    private final CAbilityStones plugin;
+    private final ConcurrentLinkedQueue<Sample> queue;
+    private volatile boolean enabled;
+    private volatile boolean running;
+    private volatile List<StatsDatabase.Ranking>[][] leaderboards;
+    private Thread writer;
+    private long flushInterval;
+    private long refreshInterval;
+    private int leaderboardSize;
+
+    public StatsManager(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.queue = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Starts the writer thread if statistics are enabled.
+     */
+    public void start() {
+        if (writer != null || !plugin.getConfig().getBoolean("stats.enabled", true)) {
+            return;
+        }
+
+        flushInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(50, plugin.getConfig().getLong("stats.flush_interval_ms", 2000)));
+        refreshInterval = TimeUnit.SECONDS.toNanos(Math.max(1, plugin.getConfig().getLong("stats.leaderboard_refresh_seconds", 60)));
+        leaderboardSize = Math.max(1, plugin.getConfig().getInt("stats.leaderboard_size", 10));
+        File file = new File(plugin.getDataFolder(), "stats.db");
+        enabled = true;
+        running = true;
+        writer = Thread.ofVirtual().name("CAbilityStones Stats Writer").start(() -> runWriter(file));
+    }
+
+    /**
+     * Stops the writer thread after it has written every queued sample.
+     */
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        enabled = false;
+    }
+
+    /**
+     * Checks if statistics are being recorded.
+     *
+     * @return true if the writer is running
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a successful activation.
+     *
+     * @param player the activating player
+     * @param type the stone type
+     */
+    public void recordActivation(Player player, StoneType type) {
+        if (enabled) {
+            queue.add(new Sample(player.getUniqueId(), player.getName(), type.ordinal(), UsageStat.ACTIVATIONS, 1));
+        }
+    }
+
+    /**
+     * Records damage an ability dealt to one enemy. Ignored if no damage was dealt.
+     *
+     * @param player the activating player
+     * @param type the stone type
+     * @param damage the health the enemy lost
+     * @param killed whether the enemy died
+     */
+    public void recordDamage(Player player, StoneType type, double damage, boolean killed) {
+        if (!enabled || (damage <= 0 && !killed)) {
+            return;
+        }
+
+        UUID id = player.getUniqueId();
+        queue.add(new Sample(id, null, type.ordinal(), UsageStat.DAMAGE_DEALT, Math.max(0, damage)));
+        if (killed) {
+            queue.add(new Sample(id, null, type.ordinal(), UsageStat.KILLS, 1));
+        }
+    }
+
+    /**
+     * Records enemies an ability damaged, debuffed or knocked back.
+     *
+     * @param player the activating player
+     * @param type the stone type
+     * @param count the number of enemies
+     */
+    public void recordHits(Player player, StoneType type, int count) {
+        if (enabled && count > 0) {
+            queue.add(new Sample(player.getUniqueId(), null, type.ordinal(), UsageStat.ENEMIES_HIT, count));
+        }
+    }
+
+    /**
+     * Records health restored by an ability. Ignored if nothing was restored.
+     *
+     * @param player the activating player
+     * @param type the stone type
+     * @param amount the health restored
+     */
+    public void recordHealing(Player player, StoneType type, double amount) {
+        if (enabled && amount > 0) {
+            queue.add(new Sample(player.getUniqueId(), null, type.ordinal(), UsageStat.HEALING, amount));
+        }
+    }
+
+    /**
+     * Gets a leaderboard from the last refresh.
+     *
+     * @param stat the statistic
+     * @param type the stone, or null for the totals over all stones
+     * @return the players, highest first, or null if not loaded yet
+     */
+    public List<StatsDatabase.Ranking> getTop(UsageStat stat, StoneType type) {
+        List<StatsDatabase.Ranking>[][] leaderboards = this.leaderboards;
+        if (leaderboards == null) {
+            return null;
+        }
+        return leaderboards[stat.ordinal()][type == null ? TYPES.length : type.ordinal()];
+    }
+
+    /**
+     * Writes queued samples until stopped, then writes the remaining ones and closes the database.
+     *
+     * @param file the database file
+     */
+    private void runWriter(File file) {
+        plugin.getDataFolder().mkdirs();
+        try (StatsDatabase database = new StatsDatabase(file)) {
+            long nextRefresh = 0;
+            while (true) {
+                boolean stopping = !running;
+                write(database);
+                if (stopping) {
+                    return;
+                }
+                if (System.nanoTime() - nextRefresh >= 0) {
+                    refresh(database);
+                    nextRefresh = System.nanoTime() + refreshInterval;
+                }
+                LockSupport.parkNanos(this, flushInterval);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Usage statistics are disabled, the database could not be used", e);
+        } finally {
+            enabled = false;
+            queue.clear();
+        }
+    }
+
+    /**
+     * Sums the queued samples and adds them to the database. A batch that fails is dropped.
+     *
+     * @param database the database
+     */
+    private void write(StatsDatabase database) {
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, double[][]> totals = new HashMap<>();
+        Map<UUID, String> names = new HashMap<>();
+        Sample sample;
+        while ((sample = queue.poll()) != null) {
+            double[][] byStone = totals.computeIfAbsent(sample.player(), k -> new double[TYPES.length][]);
+            double[] values = byStone[sample.ordinal()];
+            if (values == null) {
+                values = new double[STATS.length];
+                byStone[sample.ordinal()] = values;
+            }
+            values[sample.stat().ordinal()] += sample.amount();
+            if (sample.name() != null) {
+                names.put(sample.player(), sample.name());
+            }
+        }
+
+        try {
+            database.add(totals, names);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Dropped usage statistics of " + totals.size() + " players", e);
+        }
+    }
+
+    /**
+     * Reloads every leaderboard from the database and publishes them together.
+     *
+     * @param database the database
+     */
+    @SuppressWarnings("unchecked")
+    private void refresh(StatsDatabase database) {
+        List<StatsDatabase.Ranking>[][] refreshed = new List[STATS.length][TYPES.length + 1];
+        try {
+            for (UsageStat stat : STATS) {
+                for (StoneType type : TYPES) {
+                    refreshed[stat.ordinal()][type.ordinal()] = List.copyOf(database.top(stat, type, leaderboardSize));
+                }
+                refreshed[stat.ordinal()][TYPES.length] = List.copyOf(database.top(stat, null, leaderboardSize));
+            }
+            leaderboards = refreshed;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not refresh the usage leaderboards", e);
+        }
+    }
+
+    /**
+     * One recorded change to a statistic.
+     *
+     * @param player the player's UUID
+     * @param name the player's name, or null if not known to the recorder
+     * @param ordinal the stone ordinal
+     * @param stat the statistic
+     * @param amount the amount to add
+     */
+    private record Sample(UUID player, String name, int ordinal, UsageStat stat, double amount) {
+    }
+}
@@ -3,7 +3,6 @@ package carnage.cAbilityStones.managers;
 import carnage.cAbilityStones.CAbilityStones;
 import carnage.cAbilityStones.models.StoneType;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -11,10 +10,10 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 
-import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -22,23 +21,64 @@ import java.util.stream.Collectors;
  */
 public class StoneManager {
     private static final Material DEFAULT_MATERIAL = Material.EMERALD;
-    private static final Pattern COLOR_CODE_PATTERN = Pattern.compile("&([0-9a-fA-Fk-oK-O])");
+    private static final Map<String, StoneType> TYPES_BY_NAME = new HashMap<>();
+
+    static {
+        for (StoneType type : StoneType.values()) {
+            TYPES_BY_NAME.put(type.name(), type);
+        }
+    }
 
     private final CAbilityStones plugin;
     private final NamespacedKey stoneKey;
+    private final NamespacedKey versionKey;
+    private volatile Map<StoneType, ItemStack> templates;
+    private volatile long templateVersion;
 
     public StoneManager(CAbilityStones plugin) {
         this.plugin = plugin;
         this.stoneKey = new NamespacedKey(plugin, "stone_type");
+        this.versionKey = new NamespacedKey(plugin, "stone_version");
+        reload();
+    }
+
+    /**
+     * Rebuilds the cached configuration state and stone templates after the config has been (re)loaded.
+     */
+    public void reload() {
+        long version = 1;
+        for (StoneType type : StoneType.values()) {
+            version = 31 * version + contentHash(type);
+        }
+
+        Map<StoneType, ItemStack> built = new EnumMap<>(StoneType.class);
+        for (StoneType type : StoneType.values()) {
+            ItemStack template = buildStone(type, version);
+            built.put(type, template);
+        }
+
+        templates = built;
+        templateVersion = version;
     }
 
     /**
      * Creates an ability stone item for the specified type.
      *
      * @param type the stone type
-     * @return the created ItemStack
+     * @return a copy of the stone's prebuilt template
      */
     public ItemStack createStone(StoneType type) {
+        return templates.get(type).clone();
+    }
+
+    /**
+     * Builds a fully configured stone item from the configuration.
+     *
+     * @param type the stone type
+     * @param version the template version to stamp on the item
+     * @return the built ItemStack
+     */
+    private ItemStack buildStone(StoneType type, long version) {
         String path = "stones." + type.name().toLowerCase();
         Material material = parseMaterial(path);
         ItemStack item = new ItemStack(material);
@@ -47,11 +87,50 @@ public class StoneManager {
         setDisplayName(meta, path, type);
         setLore(meta, path, type);
         meta.getPersistentDataContainer().set(stoneKey, PersistentDataType.STRING, type.name());
+        meta.getPersistentDataContainer().set(versionKey, PersistentDataType.LONG, version);
 
         item.setItemMeta(meta);
         return item;
     }
 
+    /**
+     * Hashes the configured contents of a stone: its material, name and lore. The hash only
+     * depends on these values, so it stays the same across restarts and reloads that leave the
+     * stone unchanged.
+     *
+     * @param type the stone type
+     * @return the content hash
+     */
+    private long contentHash(StoneType type) {
+        String path = "stones." + type.name().toLowerCase();
+        long hash = type.name().hashCode();
+        hash = 31 * hash + parseMaterial(path).name().hashCode();
+        hash = 31 * hash + getDisplayName(path, type).hashCode();
+        hash = 31 * hash + getLore(path, type).hashCode();
+        return hash;
+    }
+
+    /**
+     * Gets the version stamped on stones built from the current templates. The version is a
+     * hash of every stone's configured contents and only changes when one of them does.
+     *
+     * @return the current template version
+     */
+    public long getTemplateVersion() {
+        return templateVersion;
+    }
+
+    /**
+     * Checks if a stone was created from templates whose contents differ from the current ones.
+     *
+     * @param item the stone to check
+     * @return true if the stone was built from other templates
+     */
+    public boolean isOutdated(ItemStack item) {
+        Long version = item.getPersistentDataContainer().get(versionKey, PersistentDataType.LONG);
+        return version == null || version != templateVersion;
+    }
+
     /**
      * Parses the material for the stone from the configuration.
      *
@@ -72,8 +151,7 @@ public class StoneManager {
      * @param type the stone type
      */
     private void setDisplayName(ItemMeta meta, String path, StoneType type) {
-        String displayName = plugin.getConfig().getString(path + ".name", type.getDefaultName());
-        meta.displayName(translateLegacyColorCodes(displayName).decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+        meta.displayName(plugin.getTextCompiler().compile(getDisplayName(path, type)).decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
     }
 
     /**
@@ -84,104 +162,61 @@ public class StoneManager {
      * @param type the stone type
      */
     private void setLore(ItemMeta meta, String path, StoneType type) {
-        List<String> configLore = plugin.getConfig().getStringList(path + ".lore");
-        if (configLore.isEmpty()) {
-            configLore = type.getDefaultLore();
-        }
-        List<Component> lore = configLore.stream()
-                .map(this::translateLegacyColorCodes)
+        List<Component> lore = getLore(path, type).stream()
+                .map(plugin.getTextCompiler()::compile)
                 .map(component -> component.decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE))
                 .collect(Collectors.toList());
         meta.lore(lore);
     }
 
     /**
-     * Translates legacy color codes (&x) to Adventure Component with NamedTextColor.
+     * Gets the configured display name of a stone.
      *
-     * @param text the text with legacy color codes
-     * @return the formatted Component
+     * @param path the configuration path
+     * @param type the stone type
+     * @return the raw display name
      */
-    private Component translateLegacyColorCodes(String text) {
-        if (text == null) {
-            return Component.empty();
-        }
-
-        StringBuilder builder = new StringBuilder();
-        Matcher matcher = COLOR_CODE_PATTERN.matcher(text);
-        int lastEnd = 0;
-        NamedTextColor currentColor = NamedTextColor.WHITE;
-        Component result = Component.empty();
-
-        while (matcher.find()) {
-            builder.append(text, lastEnd, matcher.start());
-            if (!builder.isEmpty()) {
-                result = result.append(Component.text(builder.toString(), currentColor));
-                builder.setLength(0);
-            }
-
-            char code = matcher.group(1).toLowerCase().charAt(0);
-            currentColor = getColorFromCode(code);
-            lastEnd = matcher.end();
-        }
-
-        builder.append(text.substring(lastEnd));
-        if (!builder.isEmpty()) {
-            result = result.append(Component.text(builder.toString(), currentColor));
-        }
-
-        return result;
+    private String getDisplayName(String path, StoneType type) {
+        return plugin.getConfig().getString(path + ".name", type.getDefaultName());
     }
 
     /**
-     * Maps legacy color codes to NamedTextColor.
+     * Gets the configured lore of a stone.
      *
-     * @param code the color code character
-     * @return the corresponding NamedTextColor
+     * @param path the configuration path
+     * @param type the stone type
+     * @return the raw lore lines
      */
-    private NamedTextColor getColorFromCode(char code) {
-        return switch (code) {
-            case '0' -> NamedTextColor.BLACK;
-            case '1' -> NamedTextColor.DARK_BLUE;
-            case '2' -> NamedTextColor.DARK_GREEN;
-            case '3' -> NamedTextColor.DARK_AQUA;
-            case '4' -> NamedTextColor.DARK_RED;
-            case '5' -> NamedTextColor.DARK_PURPLE;
-            case '6' -> NamedTextColor.GOLD;
-            case '7' -> NamedTextColor.GRAY;
-            case '8' -> NamedTextColor.DARK_GRAY;
-            case '9' -> NamedTextColor.BLUE;
-            case 'a' -> NamedTextColor.GREEN;
-            case 'b' -> NamedTextColor.AQUA;
-            case 'c' -> NamedTextColor.RED;
-            case 'd' -> NamedTextColor.LIGHT_PURPLE;
-            case 'e' -> NamedTextColor.YELLOW;
-            case 'f' -> NamedTextColor.WHITE;
-            default -> NamedTextColor.WHITE;
-        };
+    private List<String> getLore(String path, StoneType type) {
+        List<String> configLore = plugin.getConfig().getStringList(path + ".lore");
+        return configLore.isEmpty() ? type.getDefaultLore() : configLore;
     }
 
     /**
-     * Gets the stone type from an ItemStack.
+     * Identifies an ability stone by its stone tag alone, so stones keep working after their
+     * configured material changes. The tag is read through the item's read-only data view so no
+     * {@link ItemMeta} copy is made.
      *
      * @param item the ItemStack to check
      * @return the StoneType, or null if not a stone
      */
-    public StoneType getStoneType(ItemStack item) {
-        if (item == null || !item.hasItemMeta()) {
+    public StoneType identify(ItemStack item) {
+        if (item == null || item.getType().isAir()) {
             return null;
         }
 
-        ItemMeta meta = item.getItemMeta();
-        String typeStr = meta.getPersistentDataContainer().get(stoneKey, PersistentDataType.STRING);
-        if (typeStr == null) {
-            return null;
-        }
+        String typeStr = item.getPersistentDataContainer().get(stoneKey, PersistentDataType.STRING);
+        return typeStr != null ? TYPES_BY_NAME.get(typeStr) : null;
+    }
 
-        try {
-            return StoneType.valueOf(typeStr);
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
+    /**
+     * Gets the stone type from an ItemStack.
+     *
+     * @param item the ItemStack to check
+     * @return the StoneType, or null if not a stone
+     */
+    public StoneType getStoneType(ItemStack item) {
+        return identify(item);
     }
 
     /**
@@ -191,6 +226,6 @@ public class StoneManager {
      * @return true if the item is an ability stone
      */
     public boolean isAbilityStone(ItemStack item) {
-        return getStoneType(item) != null;
+        return identify(item) != null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,355 @@
+package carnage.cAbilityStones.managers;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.utils.SchedulerAdapter;
+import carnage.cAbilityStones.utils.SpatialHash;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Per-world spatial index of living entities used to find ability targets.
+ * <p>
+ * The index is updated incrementally from spawn, despawn, teleport and player move events, so a
+ * query only visits the entities in the grid cells around the caster instead of every entity the
+ * server would scan. A periodic resync picks up mob movement, unless every mob move is tracked,
+ * and drops entities that became invalid without a despawn event.
+ * <p>
+ * Between resyncs a mob's indexed position can lag behind the mob, so the index is only a broad
+ * phase: queries widen the searched cells by the furthest a mob can drift until the next resync,
+ * then keep or rank each candidate by its current position, which gives the same targets as
+ * asking the world.
+ * <p>
+ * On region-threaded servers the events arrive on many threads at once, so the index is not
+ * maintained and queries instead ask the world for the entities around the centre, keeping only
+ * those owned by the calling region.
+ */
+public class TargetIndex {
+    private final CAbilityStones plugin;
+    private final Map<UUID, SpatialHash<LivingEntity>> worlds;
+    private final Location position;
+    private final Location current;
+    private final boolean enabled;
+    private double cellSize;
+    private long resyncInterval;
+    private double drift;
+    private SchedulerAdapter.Task task;
+
+    public TargetIndex(CAbilityStones plugin) {
+        this.plugin = plugin;
+        this.worlds = new HashMap<>();
+        this.position = new Location(null, 0, 0, 0);
+        this.current = new Location(null, 0, 0, 0);
+        this.enabled = !plugin.getSchedulerAdapter().isRegionThreaded();
+        reload();
+    }
+
+    /**
+     * Reads the cell size, resync interval and mob drift from the configuration, rebuilding the
+     * index and restarting the resync task when they changed.
+     */
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+
+        double configuredCellSize = Math.max(1, plugin.getConfig().getDouble("targeting.cell_size", 8));
+        long configuredInterval = Math.max(1, plugin.getConfig().getLong("targeting.resync_interval_ticks", 20));
+
+        if (configuredCellSize != cellSize) {
+            cellSize = configuredCellSize;
+            rebuild();
+        }
+        if (configuredInterval != resyncInterval) {
+            resyncInterval = configuredInterval;
+            if (task != null) {
+                shutdown();
+                start();
+            }
+        }
+        if (plugin.getConfig().getBoolean("targeting.track_mob_movement", false)) {
+            drift = 0;
+        } else {
+            drift = resyncInterval * Math.max(0, plugin.getConfig().getDouble("targeting.max_mob_speed", 0.4));
+        }
+    }
+
+    /**
+     * Starts the periodic resync task.
+     */
+    public void start() {
+        if (task == null && enabled) {
+            task = plugin.getSchedulerAdapter().runTimer(this::resync, resyncInterval, resyncInterval);
+        }
+    }
+
+    /**
+     * Stops the resync task.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Checks if the index is maintained from entity events.
+     *
+     * @return true unless the server is region-threaded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds an entity at its current position.
+     *
+     * @param entity the entity to track
+     */
+    public void track(LivingEntity entity) {
+        Location location = entity.getLocation(position);
+        move(entity, location);
+    }
+
+    /**
+     * Moves a tracked entity, adding it if it is not tracked yet.
+     *
+     * @param entity the entity that moved
+     * @param to the new position
+     */
+    public void move(LivingEntity entity, Location to) {
+        hash(to.getWorld()).put(entity, to.getX(), to.getY(), to.getZ());
+    }
+
+    /**
+     * Removes an entity from the index.
+     *
+     * @param entity the entity to stop tracking
+     */
+    public void untrack(LivingEntity entity) {
+        SpatialHash<LivingEntity> hash = worlds.get(entity.getWorld().getUID());
+        if (hash != null && hash.remove(entity)) {
+            return;
+        }
+        for (SpatialHash<LivingEntity> other : worlds.values()) {
+            if (other.remove(entity)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops the index of an unloaded world.
+     *
+     * @param world the unloaded world
+     */
+    public void unloadWorld(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    /**
+     * Finds every valid entity within a radius of a location.
+     *
+     * @param center the query centre
+     * @param radius the query radius in blocks
+     * @param filter the condition targets must match
+     * @param out the list to add targets to
+     * @return the number of targets added
+     */
+    public int findInRadius(Location center, double radius, Predicate<? super LivingEntity> filter, List<? super LivingEntity> out) {
+        if (!enabled) {
+            return scan(center, radius, 0, filter, out);
+        }
+
+        SpatialHash<LivingEntity> hash = worlds.get(center.getWorld().getUID());
+        if (hash == null) {
+            return 0;
+        }
+        World world = center.getWorld();
+        double radiusSquared = radius * radius;
+        return hash.queryRadius(center.getX(), center.getY(), center.getZ(), radius + drift, entity -> {
+            if (!entity.isValid()) {
+                return false;
+            }
+            Location location = entity.getLocation(current);
+            return location.getWorld() == world && location.distanceSquared(center) <= radiusSquared && filter.test(entity);
+        }, out);
+    }
+
+    /**
+     * Finds every valid entity that may be within a radius of a location, judged by the indexed
+     * positions widened by the drift since the last resync. Callers check the current positions
+     * themselves; on region-threaded servers this is the same as {@link #findInRadius}.
+     *
+     * @param center the query centre
+     * @param radius the query radius in blocks
+     * @param filter the condition candidates must match
+     * @param out the list to add candidates to
+     * @return the number of candidates added
+     */
+    public int findCandidates(Location center, double radius, Predicate<? super LivingEntity> filter, List<? super LivingEntity> out) {
+        if (!enabled) {
+            return scan(center, radius, 0, filter, out);
+        }
+
+        SpatialHash<LivingEntity> hash = worlds.get(center.getWorld().getUID());
+        if (hash == null) {
+            return 0;
+        }
+        return hash.queryRadius(center.getX(), center.getY(), center.getZ(), radius + drift,
+                entity -> entity.isValid() && filter.test(entity), out);
+    }
+
+    /**
+     * Finds the valid entities closest to a location within a radius, nearest first.
+     *
+     * @param center the query centre
+     * @param radius the query radius in blocks
+     * @param limit the maximum number of targets
+     * @param filter the condition targets must match
+     * @param out the list to add targets to
+     * @return the number of targets added
+     */
+    public int findNearest(Location center, double radius, int limit, Predicate<? super LivingEntity> filter, List<? super LivingEntity> out) {
+        if (!enabled) {
+            return scan(center, radius, limit, filter, out);
+        }
+
+        if (limit <= 0) {
+            return 0;
+        }
+        List<LivingEntity> candidates = new ArrayList<>();
+        if (findInRadius(center, radius, filter, candidates) == 0) {
+            return 0;
+        }
+        double[] distances = new double[candidates.size()];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = candidates.get(i).getLocation(current).distanceSquared(center);
+        }
+        return selectNearest(candidates, distances, limit, out);
+    }
+
+    /**
+     * Gets the number of tracked entities across all worlds.
+     *
+     * @return the tracked entity count
+     */
+    public int size() {
+        int size = 0;
+        for (SpatialHash<LivingEntity> hash : worlds.values()) {
+            size += hash.size();
+        }
+        return size;
+    }
+
+    /**
+     * Answers a query from the world's own entity lookup, used when the index is disabled.
+     *
+     * @param center the query centre
+     * @param radius the query radius in blocks
+     * @param limit the maximum number of targets, nearest first, or 0 for all in no particular order
+     * @param filter the condition targets must match
+     * @param out the list to add targets to
+     * @return the number of targets added
+     */
+    private int scan(Location center, double radius, int limit, Predicate<? super LivingEntity> filter, List<? super LivingEntity> out) {
+        double radiusSquared = radius * radius;
+        List<LivingEntity> candidates = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        Location location = new Location(null, 0, 0, 0);
+        for (LivingEntity entity : center.getWorld().getNearbyLivingEntities(center, radius)) {
+            if (!plugin.getServer().isOwnedByCurrentRegion(entity) || !entity.isValid()) {
+                continue;
+            }
+            double distance = entity.getLocation(location).distanceSquared(center);
+            if (distance <= radiusSquared && filter.test(entity)) {
+                candidates.add(entity);
+                distances.add(distance);
+            }
+        }
+
+        if (limit <= 0) {
+            out.addAll(candidates);
+            return candidates.size();
+        }
+        double[] sorted = new double[distances.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = distances.get(i);
+        }
+        return selectNearest(candidates, sorted, limit, out);
+    }
+
+    /**
+     * Moves the closest candidates to the output, nearest first.
+     *
+     * @param candidates the candidates, reordered in place
+     * @param distances the squared distance of each candidate, reordered with them
+     * @param limit the maximum number of targets
+     * @param out the list to add targets to
+     * @return the number of targets added
+     */
+    private static int selectNearest(List<LivingEntity> candidates, double[] distances, int limit, List<? super LivingEntity> out) {
+        int selected = Math.min(limit, candidates.size());
+        for (int i = 0; i < selected; i++) {
+            int closest = i;
+            for (int j = i + 1; j < candidates.size(); j++) {
+                if (distances[j] < distances[closest]) {
+                    closest = j;
+                }
+            }
+            candidates.set(closest, candidates.set(i, candidates.get(closest)));
+            double distance = distances[closest];
+            distances[closest] = distances[i];
+            distances[i] = distance;
+            out.add(candidates.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Re-reads the position of every tracked entity and drops the invalid ones.
+     */
+    private void resync() {
+        for (Map.Entry<UUID, SpatialHash<LivingEntity>> entry : worlds.entrySet()) {
+            SpatialHash<LivingEntity> hash = entry.getValue();
+            for (LivingEntity entity : hash.snapshot()) {
+                Location location = entity.getLocation(position);
+                if (!entity.isValid() || !location.getWorld().getUID().equals(entry.getKey())) {
+                    hash.remove(entity);
+                } else {
+                    hash.put(entity, location.getX(), location.getY(), location.getZ());
+                }
+            }
+        }
+    }
+
+    /**
+     * Recreates the index from the entities currently loaded in every world.
+     */
+    private void rebuild() {
+        worlds.clear();
+        for (World world : plugin.getServer().getWorlds()) {
+            for (LivingEntity entity : world.getLivingEntities()) {
+                track(entity);
+            }
+        }
+    }
+
+    /**
+     * Gets the index of a world, creating it on first use.
+     *
+     * @param world the world
+     * @return the world's spatial hash
+     */
+    private SpatialHash<LivingEntity> hash(World world) {
+        return worlds.computeIfAbsent(world.getUID(), k -> new SpatialHash<>(cellSize));
+    }
+}
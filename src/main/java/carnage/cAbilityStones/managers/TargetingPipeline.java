@@ -0,0 +1,291 @@
+package carnage.cAbilityStones.managers;
+
+import carnage.cAbilityStones.CAbilityStones;
+import carnage.cAbilityStones.models.TargetQuery;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+/**
+ * Selects ability targets either inline or through an off-thread pipeline.
+ * <p>
+ * The off-thread pipeline has three steps. On the main thread, the broad-phase candidates of the
+ * target index, everything in the grid cells the query may reach, are copied into a primitive
+ * snapshot of positions and kinds without any distance check. A worker then filters the snapshot
+ * by kind and exact distance and orders it by distance. On the next tick the main thread
+ * re-validates the ordered candidates, checks line of sight with the server's ray trace when
+ * required, stopping once the limit is reached, and hands the survivors to the ability. No blocks
+ * are read for the worker, so a cast costs the main thread no more world access than the inline
+ * path. On region-threaded servers, "main thread" means the thread that owns the caster. A
+ * deferred cast's activation is completed through the {@link AbilityManager} when it is applied,
+ * which records its outcome and rolls back the cooldown granted when the cast was accepted if the
+ * ability fails. A cast whose caster is removed before then is completed as failed.
+ */
+public class TargetingPipeline {
+    private final CAbilityStones plugin;
+    private final ExecutorService workers;
+
+    public TargetingPipeline(CAbilityStones plugin) {
+        this.plugin = plugin;
+        int threads = Math.max(1, plugin.getConfig().getInt("targeting.worker_threads", 2));
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "CAbilityStones-Targeting-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the worker threads. Selections still in flight are dropped.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Selects the targets of a cast and passes them to a handler.
+     *
+     * @param caster the casting player
+     * @param query the target query
+     * @param async whether to select the targets off the main thread and apply them next tick
+     * @param handler the ability logic applied to the targets
+     * @return the handler's result when run inline, or true once a deferred selection is queued
+     */
+    public boolean select(Player caster, TargetQuery query, boolean async, Handler handler) {
+        Location center = caster.getLocation();
+        List<LivingEntity> nearby = new ArrayList<>();
+        if (!async) {
+            Predicate<LivingEntity> filter = entity -> entity != caster && query.accepts(entity)
+                    && (!query.lineOfSight() || caster.hasLineOfSight(entity));
+            if (query.limit() > 0) {
+                plugin.getTargetIndex().findNearest(center, query.range(), query.limit(), filter, nearby);
+            } else {
+                plugin.getTargetIndex().findInRadius(center, query.range(), filter, nearby);
+            }
+            return handler.apply(nearby);
+        }
+
+        plugin.getTargetIndex().findCandidates(center, query.range(), entity -> entity != caster, nearby);
+        if (nearby.isEmpty()) {
+            return handler.apply(nearby);
+        }
+
+        Snapshot snapshot = Snapshot.capture(center, nearby);
+        LivingEntity[] entities = nearby.toArray(new LivingEntity[0]);
+        AbilityManager.Activation activation = plugin.getAbilityManager().defer();
+        try {
+            workers.execute(() -> {
+                int[] order;
+                try {
+                    order = snapshot.select(query);
+                } catch (RuntimeException e) {
+                    plugin.getLogger().log(Level.WARNING, "Target selection failed for " + caster.getName(), e);
+                    order = new int[0];
+                }
+                int[] selected = order;
+                schedule(caster, () -> apply(caster, activation, query, entities, selected, handler), () -> fail(activation));
+            });
+        } catch (RejectedExecutionException e) {
+            fail(activation);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs a task on the caster's thread on the next tick, unless the plugin is shutting down.
+     *
+     * @param caster the casting player
+     * @param task the task to run
+     * @param retired called instead of the task if the caster is removed first
+     */
+    private void schedule(Player caster, Runnable task, Runnable retired) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        try {
+            plugin.getSchedulerAdapter().run(caster, task, retired);
+        } catch (IllegalStateException e) {
+            plugin.getLogger().log(Level.FINE, "Dropped targeting result during shutdown", e);
+        }
+    }
+
+    /**
+     * Completes a deferred activation that never reached its ability as failed.
+     *
+     * @param activation the deferred activation, or null if the cast was not started through the
+     *         ability manager
+     */
+    private void fail(AbilityManager.Activation activation) {
+        if (activation != null) {
+            plugin.getAbilityManager().complete(activation, false, 0);
+        }
+    }
+
+    /**
+     * Re-validates the worker's ordered candidates, applies the survivors and completes the
+     * activation with the ability's outcome.
+     *
+     * @param caster the casting player
+     * @param activation the deferred activation, or null if the cast was not started through the
+     *         ability manager
+     * @param query the target query
+     * @param entities the entities of the snapshot, by snapshot index
+     * @param order the snapshot indices accepted by the worker, nearest first when limited
+     * @param handler the ability logic applied to the targets
+     */
+    private void apply(Player caster, AbilityManager.Activation activation, TargetQuery query, LivingEntity[] entities, int[] order, Handler handler) {
+        long start = System.nanoTime();
+        boolean success = caster.isOnline() && applyTargets(caster, query, entities, order, handler);
+        if (activation != null) {
+            plugin.getAbilityManager().complete(activation, success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Re-validates the worker's ordered candidates and hands the survivors to the ability.
+     *
+     * @param caster the casting player
+     * @param query the target query
+     * @param entities the entities of the snapshot, by snapshot index
+     * @param order the snapshot indices accepted by the worker, nearest first when limited
+     * @param handler the ability logic applied to the targets
+     * @return the ability's result, false if it threw
+     */
+    private boolean applyTargets(Player caster, TargetQuery query, LivingEntity[] entities, int[] order, Handler handler) {
+        Location center = caster.getLocation();
+        Location position = new Location(null, 0, 0, 0);
+        World world = center.getWorld();
+        double rangeSquared = query.range() * query.range();
+        List<LivingEntity> targets = new ArrayList<>(query.limit() > 0 ? query.limit() : order.length);
+        for (int index : order) {
+            LivingEntity entity = entities[index];
+            if (!entity.isValid() || entity.getWorld() != world
+                    || entity.getLocation(position).distanceSquared(center) > rangeSquared) {
+                continue;
+            }
+            if (query.lineOfSight() && !caster.hasLineOfSight(entity)) {
+                continue;
+            }
+            targets.add(entity);
+            if (targets.size() == query.limit()) {
+                break;
+            }
+        }
+
+        try {
+            return handler.apply(targets);
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Deferred ability failed for " + caster.getName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Ability logic applied to the selected targets on the main thread.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * Applies the ability to its targets.
+         *
+         * @param targets the selected targets, nearest first when the query is limited
+         * @return true if the cast succeeded and keeps its cooldown
+         */
+        boolean apply(List<LivingEntity> targets);
+    }
+
+    /**
+     * Primitive copy of the entities around a caster, safe to read from any thread.
+     */
+    private static final class Snapshot {
+        private final double centerX;
+        private final double centerY;
+        private final double centerZ;
+        private final int[] kinds;
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+
+        private Snapshot(Location center, int size) {
+            this.centerX = center.getX();
+            this.centerY = center.getY();
+            this.centerZ = center.getZ();
+            this.kinds = new int[size];
+            this.x = new double[size];
+            this.y = new double[size];
+            this.z = new double[size];
+        }
+
+        /**
+         * Copies the candidates around a caster on the main thread. Candidates in another world
+         * get no kind, so no query accepts them.
+         *
+         * @param center the caster's location
+         * @param entities the broad-phase candidates
+         * @return the snapshot
+         */
+        private static Snapshot capture(Location center, List<LivingEntity> entities) {
+            Snapshot snapshot = new Snapshot(center, entities.size());
+            Location position = new Location(null, 0, 0, 0);
+            World world = center.getWorld();
+            for (int i = 0; i < entities.size(); i++) {
+                LivingEntity entity = entities.get(i);
+                entity.getLocation(position);
+                snapshot.kinds[i] = position.getWorld() == world ? TargetQuery.kindOf(entity) : 0;
+                snapshot.x[i] = position.getX();
+                snapshot.y[i] = position.getY();
+                snapshot.z[i] = position.getZ();
+            }
+            return snapshot;
+        }
+
+        /**
+         * Filters the snapshot and orders the survivors on a worker thread. Distances are packed
+         * with the index into one primitive key, so sorting never boxes.
+         *
+         * @param query the target query
+         * @return the accepted snapshot indices, nearest first when the query is limited
+         */
+        private int[] select(TargetQuery query) {
+            double rangeSquared = query.range() * query.range();
+            long[] keys = new long[kinds.length];
+            int count = 0;
+            for (int i = 0; i < kinds.length; i++) {
+                if ((query.kinds() & kinds[i]) == 0) {
+                    continue;
+                }
+
+                double dx = x[i] - centerX;
+                double dy = y[i] - centerY;
+                double dz = z[i] - centerZ;
+                double distance = dx * dx + dy * dy + dz * dz;
+                if (distance > rangeSquared) {
+                    continue;
+                }
+                keys[count++] = ((long) Float.floatToIntBits((float) distance) << 32) | i;
+            }
+
+            if (query.limit() > 0) {
+                Arrays.sort(keys, 0, count);
+            }
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (int) keys[i];
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package carnage.cAbilityStones.models;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Immutable, typed snapshot of the tunable values of one ability, read once from the configuration.
+ * <p>
+ * The meaning of the generic values depends on the ability: {@code amount} is the damage dealt or
+ * health restored, {@code power} the explosion power, knockback force or dash multiplier, and
+ * {@code radius} the size of the visual effect. The hop values only apply to chaining abilities,
+ * and the targeting flags only to abilities that pick targets around the caster.
+ */
+public final class AbilitySettings {
+    private final String name;
+    private final long cooldown;
+    private final double range;
+    private final double amount;
+    private final double power;
+    private final double lift;
+    private final double speed;
+    private final double radius;
+    private final int effectDuration;
+    private final int effectAmplifier;
+    private final int lifetime;
+    private final int particleCount;
+    private final int maxTargets;
+    private final double hopRange;
+    private final double falloff;
+    private final int hopDelay;
+    private final boolean asyncTargeting;
+    private final boolean lineOfSight;
+
+    private AbilitySettings(String name, long cooldown, double range, double amount, double power, double lift,
+                            double speed, double radius, int effectDuration, int effectAmplifier, int lifetime,
+                            int particleCount, int maxTargets, double hopRange, double falloff, int hopDelay,
+                            boolean asyncTargeting, boolean lineOfSight) {
+        this.name = name;
+        this.cooldown = cooldown;
+        this.range = range;
+        this.amount = amount;
+        this.power = power;
+        this.lift = lift;
+        this.speed = speed;
+        this.radius = radius;
+        this.effectDuration = effectDuration;
+        this.effectAmplifier = effectAmplifier;
+        this.lifetime = lifetime;
+        this.particleCount = particleCount;
+        this.maxTargets = maxTargets;
+        this.hopRange = hopRange;
+        this.falloff = falloff;
+        this.hopDelay = hopDelay;
+        this.asyncTargeting = asyncTargeting;
+        this.lineOfSight = lineOfSight;
+    }
+
+    /**
+     * Builds the settings for a stone type, falling back to the built-in defaults for missing values.
+     *
+     * @param type the stone type
+     * @param section the stone's configuration section, or null to use only defaults
+     * @return the settings snapshot
+     */
+    public static AbilitySettings load(StoneType type, ConfigurationSection section) {
+        AbilitySettings defaults = defaults(type);
+        if (section == null) {
+            return defaults;
+        }
+
+        return new AbilitySettings(
+                section.getString("ability_name", defaults.name),
+                section.getLong("cooldown", defaults.cooldown / 1000) * 1000,
+                section.getDouble("range", defaults.range),
+                section.getDouble("amount", defaults.amount),
+                section.getDouble("power", defaults.power),
+                section.getDouble("lift", defaults.lift),
+                section.getDouble("speed", defaults.speed),
+                section.getDouble("radius", defaults.radius),
+                section.getInt("effect_duration", defaults.effectDuration),
+                section.getInt("effect_amplifier", defaults.effectAmplifier),
+                section.getInt("lifetime", defaults.lifetime),
+                Math.max(1, section.getInt("particle_count", defaults.particleCount)),
+                section.getInt("max_targets", defaults.maxTargets),
+                section.getDouble("hop_range", defaults.hopRange),
+                section.getDouble("falloff", defaults.falloff),
+                Math.max(1, section.getInt("hop_delay", defaults.hopDelay)),
+                section.getBoolean("async_targeting", defaults.asyncTargeting),
+                section.getBoolean("line_of_sight", defaults.lineOfSight)
+        );
+    }
+
+    /**
+     * Gets the built-in defaults for a stone type.
+     *
+     * @param type the stone type
+     * @return the default settings
+     */
+    public static AbilitySettings defaults(StoneType type) {
+        return switch (type) {
+            case FIRE -> new AbilitySettings("Fire Burst", 10_000L, 0, 0, 3.0, 0, 0.5, 0.6, 0, 0, 100, 10, 0, 0, 1.0, 1, false, false);
+            case WATER -> new AbilitySettings("Heal Wave", 12_000L, 5.0, 4.0, 0, 0, 0.2, 6.0, 100, 1, 30, 72, 0, 0, 1.0, 1, false, false);
+            case EARTH -> new AbilitySettings("Stone Shield", 15_000L, 3.0, 0, 0.8, 0.3, 5.0, 1.5, 100, 2, 100, 3, 0, 0, 1.0, 1, false, false);
+            case AIR -> new AbilitySettings("Dash Forward", 8_000L, 0, 0, 2.0, 0.3, 30.0, 0.8, 40, 1, 40, 3, 0, 0, 1.0, 1, false, false);
+            case LIGHTNING -> new AbilitySettings("Chain Lightning", 12_000L, 6.0, 6.0, 0, 0, 0, 0, 0, 0, 0, 1, 3, 5.0, 0.8, 4, false, false);
+            case DARKNESS -> new AbilitySettings("Shadow Curse", 15_000L, 4.0, 0, 0, 0, 0, 4.0, 60, 1, 60, 8, 0, 0, 1.0, 1, false, false);
+        };
+    }
+
+    /**
+     * Gets the display name of the ability.
+     *
+     * @return the ability name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the cooldown duration in milliseconds.
+     *
+     * @return the cooldown duration
+     */
+    public long getCooldown() {
+        return cooldown;
+    }
+
+    /**
+     * Gets the range in blocks used to find targets.
+     *
+     * @return the target range
+     */
+    public double getRange() {
+        return range;
+    }
+
+    /**
+     * Gets the damage dealt or health restored per target.
+     *
+     * @return the amount
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Gets the explosion power, knockback force or dash multiplier.
+     *
+     * @return the power
+     */
+    public double getPower() {
+        return power;
+    }
+
+    /**
+     * Gets the vertical velocity added by knockbacks and dashes.
+     *
+     * @return the lift
+     */
+    public double getLift() {
+        return lift;
+    }
+
+    /**
+     * Gets the per-tick speed of the effect: blocks moved, radius growth or degrees rotated.
+     *
+     * @return the speed
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Gets the radius of the visual effect in blocks.
+     *
+     * @return the radius
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Gets the duration of the applied potion effects in ticks.
+     *
+     * @return the effect duration
+     */
+    public int getEffectDuration() {
+        return effectDuration;
+    }
+
+    /**
+     * Gets the amplifier of the applied potion effects.
+     *
+     * @return the effect amplifier
+     */
+    public int getEffectAmplifier() {
+        return effectAmplifier;
+    }
+
+    /**
+     * Gets the lifetime of the visual effect in ticks.
+     *
+     * @return the lifetime
+     */
+    public int getLifetime() {
+        return lifetime;
+    }
+
+    /**
+     * Gets the number of particles, ring samples or spikes emitted per update.
+     *
+     * @return the particle count
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * Gets the maximum number of targets hit, which is the number of hops for chaining abilities.
+     *
+     * @return the target limit
+     */
+    public int getMaxTargets() {
+        return maxTargets;
+    }
+
+    /**
+     * Gets the range in blocks a chain may jump from one target to the next.
+     *
+     * @return the hop range
+     */
+    public double getHopRange() {
+        return hopRange;
+    }
+
+    /**
+     * Gets the factor applied to the amount on every hop after the first.
+     *
+     * @return the damage falloff
+     */
+    public double getFalloff() {
+        return falloff;
+    }
+
+    /**
+     * Gets the number of ticks between two hops.
+     *
+     * @return the hop delay
+     */
+    public int getHopDelay() {
+        return hopDelay;
+    }
+
+    /**
+     * Checks if targets are selected on a worker thread and applied on the next tick.
+     *
+     * @return true if targeting runs off the main thread
+     */
+    public boolean isAsyncTargeting() {
+        return asyncTargeting;
+    }
+
+    /**
+     * Checks if targets must be in the caster's line of sight.
+     *
+     * @return true if line of sight is required
+     */
+    public boolean isLineOfSight() {
+        return lineOfSight;
+    }
+}
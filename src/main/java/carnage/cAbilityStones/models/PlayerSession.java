@@ -0,0 +1,69 @@
+package carnage.cAbilityStones.models;
+
+/**
+ * Per-player interaction state, kept while the player is online.
+ * <p>
+ * A session is only read and written from the thread that owns its player, so it needs no
+ * synchronization. Times are values of {@link carnage.cAbilityStones.managers.CooldownManager#now()}.
+ */
+public final class PlayerSession {
+    private int lastInteractionTick;
+    private boolean interacted;
+    private double tokens;
+    private long lastRefill;
+    private long lastCooldownMessage;
+
+    /**
+     * Records a stone interaction and checks whether it is the first one in its tick.
+     *
+     * @param tick the player's current tick
+     * @return true for the first interaction of the tick, false for duplicates
+     */
+    public boolean markInteraction(int tick) {
+        if (interacted && lastInteractionTick == tick) {
+            return false;
+        }
+        interacted = true;
+        lastInteractionTick = tick;
+        return true;
+    }
+
+    /**
+     * Takes a token from the activation bucket, refilling it for the time since the last call.
+     * The bucket starts full.
+     *
+     * @param now the current time in nanoseconds
+     * @param burst the bucket capacity
+     * @param tokensPerNano the refill rate
+     * @return true if a token was available
+     */
+    public boolean tryAcquireActivation(long now, double burst, double tokensPerNano) {
+        if (lastRefill == 0) {
+            tokens = burst;
+        } else {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+        }
+        lastRefill = now;
+
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Checks whether a cooldown message may be sent, recording it if so.
+     *
+     * @param now the current time in nanoseconds
+     * @param interval the minimum time between messages in nanoseconds
+     * @return true if enough time passed since the last cooldown message
+     */
+    public boolean tryCooldownMessage(long now, long interval) {
+        if (lastCooldownMessage != 0 && now - lastCooldownMessage < interval) {
+            return false;
+        }
+        lastCooldownMessage = now;
+        return true;
+    }
+}
@@ -25,7 +25,7 @@ public enum StoneType {
     ),
     LIGHTNING(
             "&e&lLightning Stone",
-            Arrays.asList("&7Ability: &eChain Lightning", "&7Strike 3 nearest enemies within", "&76 blocks with lightning", "", "&eCooldown: 12s")
+            Arrays.asList("&7Ability: &eChain Lightning", "&7Strike the nearest enemy within", "&76 blocks and chain to 2 more", "", "&eCooldown: 12s")
     ),
     DARKNESS(
             "&5&lDarkness Stone",
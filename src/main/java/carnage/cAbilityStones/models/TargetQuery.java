@@ -0,0 +1,43 @@
+package carnage.cAbilityStones.models;
+
+import org.bukkit.entity.Enemy;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+/**
+ * Describes which entities around a caster an ability may target.
+ *
+ * @param range the maximum distance from the caster in blocks
+ * @param limit the maximum number of targets, nearest first, or 0 for every target in range
+ * @param kinds the bit mask of accepted entity kinds
+ * @param lineOfSight whether targets must be visible from the caster's eyes
+ */
+public record TargetQuery(double range, int limit, int kinds, boolean lineOfSight) {
+    public static final int PLAYERS = 1;
+    public static final int HOSTILES = 1 << 1;
+    public static final int OTHERS = 1 << 2;
+    public static final int ALL = PLAYERS | HOSTILES | OTHERS;
+
+    /**
+     * Gets the kind bit of an entity.
+     *
+     * @param entity the entity to classify
+     * @return {@link #PLAYERS}, {@link #HOSTILES} or {@link #OTHERS}
+     */
+    public static int kindOf(LivingEntity entity) {
+        if (entity instanceof Player) {
+            return PLAYERS;
+        }
+        return entity instanceof Enemy ? HOSTILES : OTHERS;
+    }
+
+    /**
+     * Checks if an entity is of an accepted kind.
+     *
+     * @param entity the entity to check
+     * @return true if the entity's kind is in the mask
+     */
+    public boolean accepts(LivingEntity entity) {
+        return (kinds & kindOf(entity)) != 0;
+    }
+}
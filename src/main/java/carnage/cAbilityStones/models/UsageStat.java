@@ -0,0 +1,53 @@
+package carnage.cAbilityStones.models;
+
+/**
+ * The per-player and per-stone usage statistics recorded for leaderboards and balancing.
+ */
+public enum UsageStat {
+    ACTIVATIONS("activations", "Activations"),
+    ENEMIES_HIT("enemies_hit", "Enemies hit"),
+    KILLS("kills", "Kills"),
+    DAMAGE_DEALT("damage_dealt", "Damage dealt"),
+    HEALING("healing", "Healing");
+
+    private final String column;
+    private final String displayName;
+
+    UsageStat(String column, String displayName) {
+        this.column = column;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the database column holding the statistic, also its name in commands.
+     *
+     * @return the column name
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the name shown on leaderboards.
+     *
+     * @return the display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Finds a statistic by its column name.
+     *
+     * @param name the name, in any case
+     * @return the statistic, or null if none matches
+     */
+    public static UsageStat fromColumn(String name) {
+        for (UsageStat stat : values()) {
+            if (stat.column.equalsIgnoreCase(name)) {
+                return stat;
+            }
+        }
+        return null;
+    }
+}
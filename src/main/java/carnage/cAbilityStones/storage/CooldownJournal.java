@@ -0,0 +1,232 @@
+package carnage.cAbilityStones.storage;
+
+import carnage.cAbilityStones.models.StoneType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only binary journal of cooldown changes, written behind the main thread in batches.
+ * <p>
+ * Every record is {@value #RECORD_SIZE} bytes: the player's UUID, the stone ordinal and the
+ * wall-clock expiry in milliseconds. An expiry of {@code 0} clears the cooldown.
+ */
+public class CooldownJournal {
+    private static final int RECORD_SIZE = 8 + 8 + 1 + 8;
+    private static final int TYPE_COUNT = StoneType.values().length;
+    private static final long COMPACT_THRESHOLD_BYTES = 32L * 1024 * 1024;
+
+    private final Path file;
+    private final Logger logger;
+    private final ConcurrentLinkedQueue<Entry> pending;
+    private ByteBuffer unwritten;
+
+    public CooldownJournal(File file, Logger logger) {
+        this.file = file.toPath();
+        this.logger = logger;
+        this.pending = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Queues a cooldown change. Never touches the disk.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param expiry the wall-clock expiry in milliseconds, or 0 to clear
+     */
+    public void record(UUID player, StoneType type, long expiry) {
+        pending.add(new Entry(player, type.ordinal(), expiry));
+    }
+
+    /**
+     * Appends all queued changes to the journal in one write. Intended to run off the main thread.
+     * <p>
+     * Records a failed write could not append are kept and written first by the next flush.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty() && unwritten == null) {
+            return;
+        }
+
+        int carried = unwritten == null ? 0 : unwritten.remaining();
+        ByteBuffer buffer = ByteBuffer.allocate(carried + pending.size() * RECORD_SIZE + RECORD_SIZE * 64);
+        if (unwritten != null) {
+            buffer.put(unwritten);
+            unwritten = null;
+        }
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            if (buffer.remaining() < RECORD_SIZE) {
+                buffer = grow(buffer);
+            }
+            buffer.putLong(entry.player.getMostSignificantBits());
+            buffer.putLong(entry.player.getLeastSignificantBits());
+            buffer.put((byte) entry.ordinal);
+            buffer.putLong(entry.expiry);
+        }
+        buffer.flip();
+
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            size = channel.size();
+        } catch (IOException e) {
+            unwritten = buffer;
+            logger.log(Level.WARNING, "Failed to write cooldown journal, retrying on the next flush", e);
+            return;
+        }
+
+        if (size > COMPACT_THRESHOLD_BYTES) {
+            try {
+                compact(System.currentTimeMillis());
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to compact cooldown journal", e);
+            }
+        }
+    }
+
+    /**
+     * Replays the journal, keeping the latest unexpired expiry per player and stone, and rewrites it compacted.
+     *
+     * @return wall-clock expiry tables indexed by stone ordinal, keyed by player
+     */
+    public synchronized Map<UUID, long[]> replay() {
+        try {
+            return compact(System.currentTimeMillis());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to replay cooldown journal", e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Reads the journal and replaces it with one record per still active cooldown.
+     *
+     * @param now the current wall-clock time in milliseconds
+     * @return the surviving expiry tables
+     * @throws IOException if the journal cannot be read or rewritten
+     */
+    private Map<UUID, long[]> compact(long now) throws IOException {
+        Map<UUID, long[]> state = read(now);
+
+        int records = 0;
+        for (long[] expiries : state.values()) {
+            for (long expiry : expiries) {
+                if (expiry > now) {
+                    records++;
+                }
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(records * RECORD_SIZE);
+        for (Map.Entry<UUID, long[]> entry : state.entrySet()) {
+            long[] expiries = entry.getValue();
+            for (int ordinal = 0; ordinal < expiries.length; ordinal++) {
+                if (expiries[ordinal] > now) {
+                    buffer.putLong(entry.getKey().getMostSignificantBits());
+                    buffer.putLong(entry.getKey().getLeastSignificantBits());
+                    buffer.put((byte) ordinal);
+                    buffer.putLong(expiries[ordinal]);
+                }
+            }
+        }
+        buffer.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return state;
+    }
+
+    /**
+     * Reads every record in the journal in a single pass, later records overriding earlier ones.
+     *
+     * @param now the current wall-clock time in milliseconds
+     * @return tables containing only unexpired cooldowns
+     * @throws IOException if the journal cannot be read
+     */
+    private Map<UUID, long[]> read(long now) throws IOException {
+        Map<UUID, long[]> state = new HashMap<>();
+        if (!Files.exists(file)) {
+            return state;
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full or the file ends
+            }
+        }
+        buffer.flip();
+
+        while (buffer.remaining() >= RECORD_SIZE) {
+            long most = buffer.getLong();
+            long least = buffer.getLong();
+            int ordinal = buffer.get();
+            long expiry = buffer.getLong();
+            if (ordinal < 0 || ordinal >= TYPE_COUNT) {
+                continue;
+            }
+
+            UUID player = new UUID(most, least);
+            long[] expiries = state.get(player);
+            if (expiries == null) {
+                if (expiry <= now) {
+                    continue;
+                }
+                expiries = new long[TYPE_COUNT];
+                state.put(player, expiries);
+            }
+            expiries[ordinal] = expiry;
+        }
+
+        state.values().removeIf(expiries -> {
+            for (long expiry : expiries) {
+                if (expiry > now) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        return state;
+    }
+
+    /**
+     * Doubles the capacity of a write buffer.
+     *
+     * @param buffer the full buffer
+     * @return a larger buffer holding the same content
+     */
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    /**
+     * A queued cooldown change.
+     */
+    private record Entry(UUID player, int ordinal, long expiry) {
+    }
+}
@@ -0,0 +1,101 @@
+package carnage.cAbilityStones.storage;
+
+import carnage.cAbilityStones.models.StoneType;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Holds the cooldown expiries of players, read and written by the {@code CooldownManager}.
+ * <p>
+ * Expiries are timestamps of the store's own monotonic clock, {@link #now()}, where {@code 0}
+ * means "no cooldown". Reads are on the click path and must be answered locally. Every method
+ * must be safe to call from several region threads at once.
+ */
+public interface CooldownStore {
+
+    /**
+     * Reads the monotonic clock used for all cooldown timestamps.
+     *
+     * @return the current time in nanoseconds, always positive
+     */
+    long now();
+
+    /**
+     * Starts a cooldown unless one is already running, as a single atomic step.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param duration the cooldown duration in milliseconds
+     * @param now the current time from {@link #now()}
+     * @return 0 if the cooldown was started, otherwise the remaining cooldown in milliseconds
+     */
+    long tryAcquire(UUID player, StoneType type, long duration, long now);
+
+    /**
+     * Sets a cooldown, replacing any running one.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param duration the cooldown duration in milliseconds
+     * @param now the current time from {@link #now()}
+     */
+    void set(UUID player, StoneType type, long duration, long now);
+
+    /**
+     * Undoes a cooldown granted by {@link #tryAcquire} unless it was replaced since.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param duration the duration passed to {@code tryAcquire}
+     * @param now the time passed to {@code tryAcquire}
+     * @return true if the cooldown was undone
+     */
+    boolean rollback(UUID player, StoneType type, long duration, long now);
+
+    /**
+     * Clears a cooldown.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @return true if a cooldown was set
+     */
+    boolean clear(UUID player, StoneType type);
+
+    /**
+     * Gets the remaining cooldown time.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param now the current time from {@link #now()}
+     * @return the remaining cooldown in milliseconds, or 0 if none
+     */
+    long getRemaining(UUID player, StoneType type, long now);
+
+    /**
+     * Loads persisted cooldowns of offline players.
+     *
+     * @param wallExpiries wall-clock expiry tables in milliseconds, indexed by stone ordinal
+     */
+    void load(Map<UUID, long[]> wallExpiries);
+
+    /**
+     * Makes a joining player's stored cooldowns available for fast reads.
+     *
+     * @param player the player's UUID
+     */
+    void restore(UUID player);
+
+    /**
+     * Moves a leaving player's cooldowns out of the table of online players.
+     *
+     * @param player the player's UUID
+     */
+    void archive(UUID player);
+
+    /**
+     * Sends pending changes and releases the store's resources.
+     */
+    default void close() {
+    }
+}
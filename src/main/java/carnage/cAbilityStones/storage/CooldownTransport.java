@@ -0,0 +1,29 @@
+package carnage.cAbilityStones.storage;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries batches of cooldown changes between the servers of a network.
+ */
+public interface CooldownTransport {
+
+    /**
+     * Starts receiving messages sent by the other servers.
+     *
+     * @param receiver called with every received message, on any thread
+     */
+    void open(Consumer<byte[]> receiver);
+
+    /**
+     * Sends a message to every other server.
+     *
+     * @param message the encoded message
+     * @return false if the message could not be sent now and should be retried later
+     */
+    boolean send(byte[] message);
+
+    /**
+     * Stops receiving messages.
+     */
+    void close();
+}
@@ -0,0 +1,242 @@
+package carnage.cAbilityStones.storage;
+
+import carnage.cAbilityStones.models.StoneType;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps cooldowns in memory on this server only.
+ * <p>
+ * Each online player owns a single {@link AtomicLongArray} of expiry timestamps indexed by
+ * {@link StoneType#ordinal()}. Timestamps come from a monotonic clock relative to the
+ * store's creation, so {@code 0} always means "no cooldown". Tables of players who
+ * log out are archived only while they still hold an active cooldown. Which players are online
+ * is tracked from {@link #restore} and {@link #archive}, so changes from other servers reach the
+ * live table of an online player even before they first use a stone.
+ */
+public class MemoryCooldownStore implements CooldownStore {
+    private static final int TYPE_COUNT = StoneType.values().length;
+    private static final int ARCHIVE_PURGE_THRESHOLD = 1024;
+
+    private final long origin;
+    private final Map<UUID, AtomicLongArray> cooldowns;
+    private final Map<UUID, AtomicLongArray> archived;
+    private final Set<UUID> online;
+    private volatile int nextArchivePurge;
+
+    public MemoryCooldownStore() {
+        this.origin = System.nanoTime();
+        this.cooldowns = new ConcurrentHashMap<>();
+        this.archived = new ConcurrentHashMap<>();
+        this.online = ConcurrentHashMap.newKeySet();
+        this.nextArchivePurge = ARCHIVE_PURGE_THRESHOLD;
+    }
+
+    @Override
+    public long now() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    @Override
+    public long tryAcquire(UUID player, StoneType type, long duration, long now) {
+        AtomicLongArray expiries = cooldowns.computeIfAbsent(player, k -> new AtomicLongArray(TYPE_COUNT));
+        int ordinal = type.ordinal();
+        long expiry = now + TimeUnit.MILLISECONDS.toNanos(duration);
+        while (true) {
+            long current = expiries.get(ordinal);
+            if (current > now) {
+                return TimeUnit.NANOSECONDS.toMillis(current - now) + 1;
+            }
+            if (expiries.compareAndSet(ordinal, current, expiry)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public void set(UUID player, StoneType type, long duration, long now) {
+        AtomicLongArray expiries = cooldowns.computeIfAbsent(player, k -> new AtomicLongArray(TYPE_COUNT));
+        expiries.set(type.ordinal(), now + TimeUnit.MILLISECONDS.toNanos(duration));
+    }
+
+    @Override
+    public boolean rollback(UUID player, StoneType type, long duration, long now) {
+        AtomicLongArray expiries = cooldowns.get(player);
+        long expiry = now + TimeUnit.MILLISECONDS.toNanos(duration);
+        return expiries != null && expiries.compareAndSet(type.ordinal(), expiry, 0);
+    }
+
+    @Override
+    public boolean clear(UUID player, StoneType type) {
+        AtomicLongArray expiries = cooldowns.get(player);
+        return expiries != null && expiries.getAndSet(type.ordinal(), 0) != 0;
+    }
+
+    @Override
+    public long getRemaining(UUID player, StoneType type, long now) {
+        AtomicLongArray expiries = cooldowns.get(player);
+        if (expiries == null) {
+            return 0;
+        }
+
+        long remaining = expiries.get(type.ordinal()) - now;
+        return remaining > 0 ? TimeUnit.NANOSECONDS.toMillis(remaining) + 1 : 0;
+    }
+
+    /**
+     * Applies a cooldown change made elsewhere, to the player's table if they are online or to
+     * the archive otherwise. An online player without a table yet gets one, taking over any
+     * archived cooldowns. A player joining or leaving meanwhile is checked again afterwards, so
+     * the change always ends up where the player's cooldowns are read from.
+     *
+     * @param player the player's UUID
+     * @param ordinal the stone ordinal
+     * @param wallExpiry the wall-clock expiry in milliseconds, or 0 to clear
+     */
+    public void apply(UUID player, int ordinal, long wallExpiry) {
+        if (ordinal < 0 || ordinal >= TYPE_COUNT) {
+            return;
+        }
+
+        long now = now();
+        long remaining = wallExpiry - System.currentTimeMillis();
+        long expiry = remaining > 0 ? now + TimeUnit.MILLISECONDS.toNanos(remaining) : 0;
+        if (online.contains(player)) {
+            cooldowns.computeIfAbsent(player, this::takeArchived).set(ordinal, expiry);
+            if (!online.contains(player)) {
+                archive(player);
+            }
+            return;
+        }
+
+        if (expiry != 0) {
+            archived.computeIfAbsent(player, k -> new AtomicLongArray(TYPE_COUNT)).set(ordinal, expiry);
+        } else {
+            AtomicLongArray archivedExpiries = archived.get(player);
+            if (archivedExpiries != null) {
+                archivedExpiries.set(ordinal, 0);
+            }
+        }
+        if (online.contains(player)) {
+            adopt(player);
+        }
+    }
+
+    @Override
+    public void load(Map<UUID, long[]> wallExpiries) {
+        long now = now();
+        long wallNow = System.currentTimeMillis();
+        for (Map.Entry<UUID, long[]> entry : wallExpiries.entrySet()) {
+            long[] source = entry.getValue();
+            AtomicLongArray expiries = new AtomicLongArray(TYPE_COUNT);
+            for (int ordinal = 0; ordinal < TYPE_COUNT && ordinal < source.length; ordinal++) {
+                long remaining = source[ordinal] - wallNow;
+                if (remaining > 0) {
+                    expiries.set(ordinal, now + TimeUnit.MILLISECONDS.toNanos(remaining));
+                }
+            }
+            if (hasActive(expiries, now)) {
+                archived.put(entry.getKey(), expiries);
+            }
+        }
+    }
+
+    @Override
+    public void restore(UUID player) {
+        online.add(player);
+        adopt(player);
+    }
+
+    @Override
+    public void archive(UUID player) {
+        online.remove(player);
+        AtomicLongArray expiries = cooldowns.remove(player);
+        if (expiries == null) {
+            return;
+        }
+
+        long now = now();
+        if (!hasActive(expiries, now)) {
+            return;
+        }
+
+        if (archived.size() >= nextArchivePurge) {
+            purgeArchive(now);
+            nextArchivePurge = Math.max(ARCHIVE_PURGE_THRESHOLD, archived.size() * 2);
+        }
+        archived.put(player, expiries);
+    }
+
+    /**
+     * Moves a player's archived cooldowns into their live table. Cooldowns still running in the
+     * live table are kept; empty or expired entries take the later archived expiry.
+     *
+     * @param player the player's UUID
+     */
+    private void adopt(UUID player) {
+        AtomicLongArray expiries = archived.remove(player);
+        long now = now();
+        if (expiries == null || !hasActive(expiries, now)) {
+            return;
+        }
+
+        AtomicLongArray current = cooldowns.putIfAbsent(player, expiries);
+        if (current == null) {
+            return;
+        }
+        for (int ordinal = 0; ordinal < TYPE_COUNT; ordinal++) {
+            long expiry = expiries.get(ordinal);
+            long live = current.get(ordinal);
+            while (live <= now && expiry > live && !current.compareAndSet(ordinal, live, expiry)) {
+                live = current.get(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Takes a player's archived table to become their live table, or creates an empty one.
+     *
+     * @param player the player's UUID
+     * @return the table
+     */
+    private AtomicLongArray takeArchived(UUID player) {
+        AtomicLongArray expiries = archived.remove(player);
+        return expiries != null ? expiries : new AtomicLongArray(TYPE_COUNT);
+    }
+
+    /**
+     * Drops archived tables whose cooldowns have all expired.
+     *
+     * @param now the current time from {@link #now()}
+     */
+    private void purgeArchive(long now) {
+        Iterator<AtomicLongArray> iterator = archived.values().iterator();
+        while (iterator.hasNext()) {
+            if (!hasActive(iterator.next(), now)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Checks whether any entry of a cooldown table is still active.
+     *
+     * @param expiries the expiry table
+     * @param now the current time from {@link #now()}
+     * @return true if at least one cooldown has not expired
+     */
+    private static boolean hasActive(AtomicLongArray expiries, long now) {
+        for (int ordinal = 0; ordinal < expiries.length(); ordinal++) {
+            if (expiries.get(ordinal) > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
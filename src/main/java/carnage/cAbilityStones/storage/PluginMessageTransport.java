@@ -0,0 +1,101 @@
+package carnage.cAbilityStones.storage;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Forwards messages to every other backend server through the proxy's BungeeCord channel,
+ * which BungeeCord and Velocity both support.
+ * <p>
+ * Plugin messages travel over a player's connection, so nothing can be sent while the server is
+ * empty. An empty server has no cooldowns to share, and changes queued before the last player
+ * left are kept until someone joins. Reading the player list and sending over a connection are
+ * only safe on the server's threads, so {@link #send} must be called on the main thread, or the
+ * global region thread on region-threaded servers.
+ */
+public class PluginMessageTransport implements CooldownTransport, PluginMessageListener {
+    private static final String CHANNEL = "BungeeCord";
+    private static final String SUBCHANNEL = "CAbilityStones";
+    private static final int MAX_PAYLOAD = Short.MAX_VALUE;
+
+    private final Plugin plugin;
+    private volatile Consumer<byte[]> receiver;
+
+    public PluginMessageTransport(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void open(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
+        plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, CHANNEL, this);
+    }
+
+    @Override
+    public boolean send(byte[] message) {
+        if (message.length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Message of " + message.length + " bytes exceeds the plugin message limit");
+        }
+        Iterator<? extends Player> players = plugin.getServer().getOnlinePlayers().iterator();
+        if (!players.hasNext()) {
+            return false;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(message.length + 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF("Forward");
+            out.writeUTF("ALL");
+            out.writeUTF(SUBCHANNEL);
+            out.writeShort(message.length);
+            out.write(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        players.next().sendPluginMessage(plugin, CHANNEL, bytes.toByteArray());
+        return true;
+    }
+
+    @Override
+    public void close() {
+        plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, CHANNEL, this);
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL);
+        receiver = null;
+    }
+
+    /**
+     * Unwraps forwarded cooldown messages and passes them to the receiver.
+     *
+     * @param channel the channel the message arrived on
+     * @param player the player whose connection carried it
+     * @param message the raw message
+     */
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        Consumer<byte[]> receiver = this.receiver;
+        if (!CHANNEL.equals(channel) || receiver == null) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            if (!SUBCHANNEL.equals(in.readUTF())) {
+                return;
+            }
+            byte[] payload = new byte[in.readUnsignedShort()];
+            in.readFully(payload);
+            receiver.accept(payload);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Dropped a malformed cooldown sync message from the proxy");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package carnage.cAbilityStones.storage;
+
+import carnage.cAbilityStones.models.StoneType;
+import carnage.cAbilityStones.models.UsageStat;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SQLite database of usage statistics, one row per player and stone.
+ * <p>
+ * Uses the SQLite driver bundled with the server. Not thread-safe: all calls must come from the
+ * single writer thread of the {@code StatsManager}.
+ */
+public class StatsDatabase implements AutoCloseable {
+    private static final UsageStat[] STATS = UsageStat.values();
+    private static final StoneType[] TYPES = StoneType.values();
+
+    private final Connection connection;
+    private final PreparedStatement upsertStats;
+    private final PreparedStatement upsertPlayer;
+
+    public StatsDatabase(File file) throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("The SQLite driver is not available", e);
+        }
+
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("CREATE TABLE IF NOT EXISTS players (uuid TEXT PRIMARY KEY, name TEXT NOT NULL)");
+            statement.execute("CREATE TABLE IF NOT EXISTS stone_stats (player TEXT NOT NULL, stone TEXT NOT NULL, "
+                    + "activations INTEGER NOT NULL DEFAULT 0, enemies_hit INTEGER NOT NULL DEFAULT 0, "
+                    + "kills INTEGER NOT NULL DEFAULT 0, damage_dealt REAL NOT NULL DEFAULT 0, "
+                    + "healing REAL NOT NULL DEFAULT 0, PRIMARY KEY (player, stone))");
+        }
+        connection.setAutoCommit(false);
+
+        StringBuilder upsert = new StringBuilder("INSERT INTO stone_stats (player, stone");
+        StringBuilder update = new StringBuilder(" ON CONFLICT (player, stone) DO UPDATE SET ");
+        for (UsageStat stat : STATS) {
+            upsert.append(", ").append(stat.getColumn());
+            if (stat.ordinal() > 0) {
+                update.append(", ");
+            }
+            update.append(stat.getColumn()).append(" = ").append(stat.getColumn()).append(" + excluded.").append(stat.getColumn());
+        }
+        upsert.append(") VALUES (?, ?").append(", ?".repeat(STATS.length)).append(")").append(update);
+        this.upsertStats = connection.prepareStatement(upsert.toString());
+        this.upsertPlayer = connection.prepareStatement("INSERT INTO players (uuid, name) VALUES (?, ?) "
+                + "ON CONFLICT (uuid) DO UPDATE SET name = excluded.name");
+    }
+
+    /**
+     * Adds a batch of statistics to the stored totals in one transaction.
+     *
+     * @param totals the statistics per player, indexed by stone ordinal and then statistic ordinal
+     * @param names the latest known names of players
+     * @throws SQLException if the batch cannot be written, in which case nothing is written
+     */
+    public void add(Map<UUID, double[][]> totals, Map<UUID, String> names) throws SQLException {
+        try {
+            for (Map.Entry<UUID, String> entry : names.entrySet()) {
+                upsertPlayer.setString(1, entry.getKey().toString());
+                upsertPlayer.setString(2, entry.getValue());
+                upsertPlayer.addBatch();
+            }
+            for (Map.Entry<UUID, double[][]> entry : totals.entrySet()) {
+                double[][] byStone = entry.getValue();
+                for (StoneType type : TYPES) {
+                    double[] values = byStone[type.ordinal()];
+                    if (values == null) {
+                        continue;
+                    }
+                    upsertStats.setString(1, entry.getKey().toString());
+                    upsertStats.setString(2, type.name());
+                    for (UsageStat stat : STATS) {
+                        upsertStats.setDouble(3 + stat.ordinal(), values[stat.ordinal()]);
+                    }
+                    upsertStats.addBatch();
+                }
+            }
+            upsertPlayer.executeBatch();
+            upsertStats.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            upsertPlayer.clearBatch();
+            upsertStats.clearBatch();
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the players with the highest value of a statistic.
+     *
+     * @param stat the statistic
+     * @param type the stone to rank by, or null to sum over all stones
+     * @param limit the number of players to read
+     * @return the players, highest first
+     * @throws SQLException if the query fails
+     */
+    public List<Ranking> top(UsageStat stat, StoneType type, int limit) throws SQLException {
+        String sql = "SELECT s.player, p.name, SUM(s." + stat.getColumn() + ") AS total FROM stone_stats s "
+                + "LEFT JOIN players p ON p.uuid = s.player "
+                + (type == null ? "" : "WHERE s.stone = ? ")
+                + "GROUP BY s.player HAVING total > 0 ORDER BY total DESC LIMIT ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (type != null) {
+                statement.setString(index++, type.name());
+            }
+            statement.setInt(index, limit);
+
+            List<Ranking> rankings = new ArrayList<>(limit);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    String name = result.getString(2);
+                    rankings.add(new Ranking(UUID.fromString(result.getString(1)), name == null ? result.getString(1) : name, result.getDouble(3)));
+                }
+            }
+            connection.commit();
+            return rankings;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * One line of a leaderboard.
+     *
+     * @param player the player's UUID
+     * @param name the player's last known name
+     * @param value the player's total
+     */
+    public record Ranking(UUID player, String name, double value) {
+    }
+}
@@ -0,0 +1,224 @@
+package carnage.cAbilityStones.storage;
+
+import carnage.cAbilityStones.models.StoneType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * Shares cooldowns with the other servers of a network.
+ * <p>
+ * Every read and write goes to a local {@link MemoryCooldownStore}, so the click path never
+ * waits on the network. Writes are also queued and sent in batches by {@link #flush()}, and
+ * changes received from other servers are applied to the local store, which holds them in its
+ * archive until the player joins. Expiries travel as wall-clock times, so the servers' clocks
+ * must be kept in sync.
+ * <p>
+ * A message is a format byte, the sending server's id, the record count and then one
+ * {@value #RECORD_SIZE} byte record per change: the player's UUID, the stone ordinal and the
+ * wall-clock expiry in milliseconds, {@code 0} to clear.
+ */
+public class SyncedCooldownStore implements CooldownStore {
+    private static final byte FORMAT = 1;
+    private static final int HEADER_SIZE = 1 + 8 + 8 + 4;
+    private static final int RECORD_SIZE = 8 + 8 + 1 + 8;
+    private static final int MAX_BATCH = 1024;
+
+    private final MemoryCooldownStore cache;
+    private final CooldownTransport transport;
+    private final Logger logger;
+    private final UUID serverId;
+    private final ConcurrentLinkedQueue<Change> pending;
+    private List<Change> unsent;
+
+    public SyncedCooldownStore(MemoryCooldownStore cache, CooldownTransport transport, Logger logger) {
+        this.cache = cache;
+        this.transport = transport;
+        this.logger = logger;
+        this.serverId = UUID.randomUUID();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.unsent = List.of();
+        transport.open(this::receive);
+    }
+
+    @Override
+    public long now() {
+        return cache.now();
+    }
+
+    @Override
+    public long tryAcquire(UUID player, StoneType type, long duration, long now) {
+        long remaining = cache.tryAcquire(player, type, duration, now);
+        if (remaining == 0) {
+            publish(player, type, System.currentTimeMillis() + duration);
+        }
+        return remaining;
+    }
+
+    @Override
+    public void set(UUID player, StoneType type, long duration, long now) {
+        cache.set(player, type, duration, now);
+        publish(player, type, System.currentTimeMillis() + duration);
+    }
+
+    @Override
+    public boolean rollback(UUID player, StoneType type, long duration, long now) {
+        if (!cache.rollback(player, type, duration, now)) {
+            return false;
+        }
+        publish(player, type, 0);
+        return true;
+    }
+
+    @Override
+    public boolean clear(UUID player, StoneType type) {
+        if (!cache.clear(player, type)) {
+            return false;
+        }
+        publish(player, type, 0);
+        return true;
+    }
+
+    @Override
+    public long getRemaining(UUID player, StoneType type, long now) {
+        return cache.getRemaining(player, type, now);
+    }
+
+    @Override
+    public void load(Map<UUID, long[]> wallExpiries) {
+        cache.load(wallExpiries);
+    }
+
+    @Override
+    public void restore(UUID player) {
+        cache.restore(player);
+    }
+
+    @Override
+    public void archive(UUID player) {
+        cache.archive(player);
+    }
+
+    @Override
+    public void close() {
+        flush();
+        transport.close();
+    }
+
+    /**
+     * Queues a change for the next batch.
+     *
+     * @param player the player's UUID
+     * @param type the stone type
+     * @param expiry the wall-clock expiry in milliseconds, or 0 to clear
+     */
+    private void publish(UUID player, StoneType type, long expiry) {
+        pending.add(new Change(player, type.ordinal(), expiry));
+    }
+
+    /**
+     * Sends all queued changes, keeping only the latest change per player and stone. Changes
+     * the transport cannot send yet are retried by the next flush, unless replaced by then.
+     * Must be called on a thread the transport may send from.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty() && unsent.isEmpty()) {
+            return;
+        }
+
+        Map<Change, Change> latest = new LinkedHashMap<>();
+        for (Change retry : unsent) {
+            latest.put(retry, retry);
+        }
+        Change change;
+        while ((change = pending.poll()) != null) {
+            latest.remove(change);
+            latest.put(change, change);
+        }
+
+        List<Change> changes = new ArrayList<>(latest.values());
+        for (int start = 0; start < changes.size(); start += MAX_BATCH) {
+            List<Change> batch = changes.subList(start, Math.min(changes.size(), start + MAX_BATCH));
+            if (!transport.send(encode(batch))) {
+                unsent = new ArrayList<>(changes.subList(start, changes.size()));
+                return;
+            }
+        }
+        unsent = List.of();
+    }
+
+    /**
+     * Encodes a batch of changes as one message.
+     *
+     * @param batch the changes
+     * @return the message
+     */
+    private byte[] encode(List<Change> batch) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + batch.size() * RECORD_SIZE);
+        buffer.put(FORMAT);
+        buffer.putLong(serverId.getMostSignificantBits());
+        buffer.putLong(serverId.getLeastSignificantBits());
+        buffer.putInt(batch.size());
+        for (Change change : batch) {
+            buffer.putLong(change.player().getMostSignificantBits());
+            buffer.putLong(change.player().getLeastSignificantBits());
+            buffer.put((byte) change.ordinal());
+            buffer.putLong(change.expiry());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Applies the changes of a message from another server to the local store.
+     *
+     * @param message the message
+     */
+    private void receive(byte[] message) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(message);
+            if (buffer.get() != FORMAT) {
+                logger.warning("Ignored a cooldown sync message in an unknown format");
+                return;
+            }
+            if (serverId.equals(new UUID(buffer.getLong(), buffer.getLong()))) {
+                return;
+            }
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                UUID player = new UUID(buffer.getLong(), buffer.getLong());
+                int ordinal = buffer.get();
+                cache.apply(player, ordinal, buffer.getLong());
+            }
+        } catch (BufferUnderflowException e) {
+            logger.warning("Ignored a truncated cooldown sync message");
+        }
+    }
+
+    /**
+     * A queued change. Equal for the same player and stone, so that later changes replace it.
+     *
+     * @param player the player's UUID
+     * @param ordinal the stone ordinal
+     * @param expiry the wall-clock expiry in milliseconds, or 0 to clear
+     */
+    private record Change(UUID player, int ordinal, long expiry) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Change change && change.player.equals(player) && change.ordinal == ordinal;
+        }
+
+        @Override
+        public int hashCode() {
+            return player.hashCode() * 31 + ordinal;
+        }
+    }
+}
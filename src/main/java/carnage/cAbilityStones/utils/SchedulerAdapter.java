@@ -0,0 +1,143 @@
+package carnage.cAbilityStones.utils;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes plugin scheduling to the right scheduler for the running server.
+ * <p>
+ * On region-threaded servers (Folia) tasks go to the entity, region, global region or async
+ * scheduler so they run on the thread that owns the data they touch. Everywhere else they go to
+ * the Bukkit scheduler, where every synchronous task shares the main thread.
+ */
+public class SchedulerAdapter {
+    private static final long MILLIS_PER_TICK = 50;
+
+    private final Plugin plugin;
+    private final boolean regionThreaded;
+
+    public SchedulerAdapter(Plugin plugin) {
+        this.plugin = plugin;
+        this.regionThreaded = detectRegionThreading();
+    }
+
+    /**
+     * Checks if the server runs regions on separate threads.
+     *
+     * @return true on Folia and its forks
+     */
+    public boolean isRegionThreaded() {
+        return regionThreaded;
+    }
+
+    /**
+     * Runs a task repeatedly on the global region, or the main thread.
+     *
+     * @param task the task to run
+     * @param delay the delay before the first run in ticks
+     * @param period the ticks between runs
+     * @return the scheduled task
+     */
+    public Task runTimer(Runnable task, long delay, long period) {
+        if (regionThreaded) {
+            return plugin.getServer().getGlobalRegionScheduler()
+                    .runAtFixedRate(plugin, scheduled -> task.run(), Math.max(1, delay), period)::cancel;
+        }
+        return plugin.getServer().getScheduler().runTaskTimer(plugin, task, delay, period)::cancel;
+    }
+
+    /**
+     * Runs a task repeatedly on the thread that owns an entity, following it across regions.
+     *
+     * @param entity the owning entity
+     * @param task the task to run
+     * @param retired called instead of the task once the entity is removed, may be null
+     * @param delay the delay before the first run in ticks
+     * @param period the ticks between runs
+     * @return the scheduled task, or null if the entity is already removed
+     */
+    public Task runTimer(Entity entity, Runnable task, Runnable retired, long delay, long period) {
+        if (regionThreaded) {
+            ScheduledTask scheduled = entity.getScheduler().runAtFixedRate(plugin, ignored -> task.run(), retired, Math.max(1, delay), period);
+            return scheduled == null ? null : scheduled::cancel;
+        }
+        return plugin.getServer().getScheduler().runTaskTimer(plugin, task, delay, period)::cancel;
+    }
+
+    /**
+     * Runs a task once on the next tick on the thread that owns an entity.
+     *
+     * @param entity the owning entity
+     * @param task the task to run
+     * @param retired called instead of the task if the entity is removed first, may be null
+     */
+    public void run(Entity entity, Runnable task, Runnable retired) {
+        if (regionThreaded) {
+            if (entity.getScheduler().run(plugin, ignored -> task.run(), retired) == null && retired != null) {
+                retired.run();
+            }
+            return;
+        }
+        plugin.getServer().getScheduler().runTask(plugin, task);
+    }
+
+    /**
+     * Runs a task once after a delay on the thread that owns a location.
+     *
+     * @param location the location whose region runs the task
+     * @param task the task to run
+     * @param delay the delay in ticks
+     */
+    public void runLater(Location location, Runnable task, long delay) {
+        if (regionThreaded) {
+            plugin.getServer().getRegionScheduler().runDelayed(plugin, location, ignored -> task.run(), Math.max(1, delay));
+            return;
+        }
+        plugin.getServer().getScheduler().runTaskLater(plugin, task, delay);
+    }
+
+    /**
+     * Runs a task repeatedly off the server threads.
+     *
+     * @param task the task to run
+     * @param delay the delay before the first run in ticks
+     * @param period the ticks between runs
+     * @return the scheduled task
+     */
+    public Task runAsyncTimer(Runnable task, long delay, long period) {
+        if (regionThreaded) {
+            return plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, scheduled -> task.run(),
+                    Math.max(1, delay) * MILLIS_PER_TICK, period * MILLIS_PER_TICK, TimeUnit.MILLISECONDS)::cancel;
+        }
+        return plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, task, delay, period)::cancel;
+    }
+
+    /**
+     * Checks for the region-threaded server implementation.
+     *
+     * @return true if the Folia region scheduler classes are present
+     */
+    private static boolean detectRegionThreading() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Handle of a scheduled task, independent of the scheduler that runs it.
+     */
+    @FunctionalInterface
+    public interface Task {
+        /**
+         * Cancels the task. Has no effect if it already finished or was cancelled.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,523 @@
+package carnage.cAbilityStones.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid of cubic cells mapping positions to values, kept up to date incrementally.
+ * <p>
+ * Each value stores its last reported position and its cell. Moving a value within its cell only
+ * updates the stored position; crossing a cell border swaps it between two cell buckets in constant
+ * time. Queries only visit the cells overlapping the query sphere. Cell buckets are looked up in an
+ * open-addressing table keyed by the packed cell coordinates, so lookups never box a key. The hash
+ * is not thread-safe.
+ *
+ * @param <T> the type of the indexed values
+ */
+public class SpatialHash<T> {
+    private static final int COORDINATE_BITS = 21;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+
+    private final double cellSize;
+    private final double inverseCellSize;
+    private final Map<T, Entry<T>> entries;
+    private final CellTable<T> buckets;
+    private Entry<?>[] candidates;
+    private double[] candidateDistances;
+
+    public SpatialHash(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+        this.entries = new HashMap<>();
+        this.buckets = new CellTable<>();
+        this.candidates = new Entry<?>[16];
+        this.candidateDistances = new double[16];
+    }
+
+    /**
+     * Gets the edge length of a cell.
+     *
+     * @return the cell size in blocks
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Inserts a value or moves it to a new position.
+     *
+     * @param value the value to index
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     */
+    public void put(T value, double x, double y, double z) {
+        long cell = cellKey(x, y, z);
+        Entry<T> entry = entries.get(value);
+        if (entry == null) {
+            entry = new Entry<>(value);
+            entries.put(value, entry);
+            addToBucket(entry, cell);
+        } else if (entry.cell != cell) {
+            removeFromBucket(entry);
+            addToBucket(entry, cell);
+        }
+        entry.x = x;
+        entry.y = y;
+        entry.z = z;
+    }
+
+    /**
+     * Removes a value from the index.
+     *
+     * @param value the value to remove
+     * @return true if the value was indexed
+     */
+    public boolean remove(T value) {
+        Entry<T> entry = entries.remove(value);
+        if (entry == null) {
+            return false;
+        }
+        removeFromBucket(entry);
+        return true;
+    }
+
+    /**
+     * Checks if a value is indexed.
+     *
+     * @param value the value to check
+     * @return true if the value is indexed
+     */
+    public boolean contains(T value) {
+        return entries.containsKey(value);
+    }
+
+    /**
+     * Gets the number of indexed values.
+     *
+     * @return the value count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every value.
+     */
+    public void clear() {
+        entries.clear();
+        buckets.clear();
+    }
+
+    /**
+     * Copies the indexed values, so callers can update or remove them while iterating.
+     *
+     * @return a new list of the indexed values
+     */
+    public List<T> snapshot() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Collects every value within a radius of a point, in no particular order.
+     *
+     * @param x the centre x coordinate
+     * @param y the centre y coordinate
+     * @param z the centre z coordinate
+     * @param radius the query radius
+     * @param filter the condition values must match
+     * @param out the list to add matching values to
+     * @return the number of values added
+     */
+    public int queryRadius(double x, double y, double z, double radius, Predicate<? super T> filter, List<? super T> out) {
+        double radiusSquared = radius * radius;
+        int minX = cell(x - radius), maxX = cell(x + radius);
+        int minY = cell(y - radius), maxY = cell(y + radius);
+        int minZ = cell(z - radius), maxZ = cell(z + radius);
+        int added = 0;
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cz = minZ; cz <= maxZ; cz++) {
+                    Bucket<T> bucket = buckets.get(pack(cx, cy, cz));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < bucket.size; i++) {
+                        Entry<T> entry = bucket.entries[i];
+                        if (entry.distanceSquared(x, y, z) <= radiusSquared && filter.test(entry.value)) {
+                            out.add(entry.value);
+                            added++;
+                        }
+                    }
+                }
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Collects the values closest to a point within a radius, nearest first.
+     *
+     * @param x the centre x coordinate
+     * @param y the centre y coordinate
+     * @param z the centre z coordinate
+     * @param radius the query radius
+     * @param limit the maximum number of values to collect
+     * @param filter the condition values must match
+     * @param out the list to add matching values to
+     * @return the number of values added
+     */
+    @SuppressWarnings("unchecked")
+    public int nearest(double x, double y, double z, double radius, int limit, Predicate<? super T> filter, List<? super T> out) {
+        if (limit <= 0) {
+            return 0;
+        }
+
+        double radiusSquared = radius * radius;
+        int minX = cell(x - radius), maxX = cell(x + radius);
+        int minY = cell(y - radius), maxY = cell(y + radius);
+        int minZ = cell(z - radius), maxZ = cell(z + radius);
+        int count = 0;
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cz = minZ; cz <= maxZ; cz++) {
+                    Bucket<T> bucket = buckets.get(pack(cx, cy, cz));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < bucket.size; i++) {
+                        Entry<T> entry = bucket.entries[i];
+                        double distance = entry.distanceSquared(x, y, z);
+                        if (distance <= radiusSquared && filter.test(entry.value)) {
+                            count = addCandidate(entry, distance, count);
+                        }
+                    }
+                }
+            }
+        }
+
+        int selected = Math.min(limit, count);
+        for (int i = 0; i < selected; i++) {
+            int closest = i;
+            for (int j = i + 1; j < count; j++) {
+                if (candidateDistances[j] < candidateDistances[closest]) {
+                    closest = j;
+                }
+            }
+            swapCandidates(i, closest);
+            out.add(((Entry<T>) candidates[i]).value);
+        }
+        Arrays.fill(candidates, 0, count, null);
+        return selected;
+    }
+
+    /**
+     * Appends an entry to the scratch candidate arrays, growing them when full.
+     *
+     * @param entry the candidate entry
+     * @param distance its squared distance to the query point
+     * @param count the current candidate count
+     * @return the new candidate count
+     */
+    private int addCandidate(Entry<T> entry, double distance, int count) {
+        if (count == candidates.length) {
+            candidates = Arrays.copyOf(candidates, count * 2);
+            candidateDistances = Arrays.copyOf(candidateDistances, count * 2);
+        }
+        candidates[count] = entry;
+        candidateDistances[count] = distance;
+        return count + 1;
+    }
+
+    /**
+     * Swaps two candidates in the scratch arrays.
+     *
+     * @param a the first index
+     * @param b the second index
+     */
+    private void swapCandidates(int a, int b) {
+        Entry<?> entry = candidates[a];
+        candidates[a] = candidates[b];
+        candidates[b] = entry;
+        double distance = candidateDistances[a];
+        candidateDistances[a] = candidateDistances[b];
+        candidateDistances[b] = distance;
+    }
+
+    /**
+     * Adds an entry to the bucket of a cell.
+     *
+     * @param entry the entry to add
+     * @param cell the packed cell key
+     */
+    private void addToBucket(Entry<T> entry, long cell) {
+        Bucket<T> bucket = buckets.get(cell);
+        if (bucket == null) {
+            bucket = new Bucket<>();
+            buckets.add(cell, bucket);
+        }
+        entry.cell = cell;
+        entry.slot = bucket.add(entry);
+    }
+
+    /**
+     * Removes an entry from its current bucket, dropping the bucket once empty.
+     *
+     * @param entry the entry to remove
+     */
+    private void removeFromBucket(Entry<T> entry) {
+        Bucket<T> bucket = buckets.get(entry.cell);
+        if (bucket != null && bucket.remove(entry.slot) == 0) {
+            buckets.remove(entry.cell);
+        }
+    }
+
+    /**
+     * Gets the cell coordinate of a world coordinate.
+     *
+     * @param coordinate the world coordinate
+     * @return the cell coordinate
+     */
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    /**
+     * Gets the packed key of the cell containing a position.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the packed cell key
+     */
+    private long cellKey(double x, double y, double z) {
+        return pack(cell(x), cell(y), cell(z));
+    }
+
+    /**
+     * Packs three cell coordinates into one key, 21 bits each.
+     *
+     * @param cx the cell x coordinate
+     * @param cy the cell y coordinate
+     * @param cz the cell z coordinate
+     * @return the packed cell key
+     */
+    private static long pack(int cx, int cy, int cz) {
+        return ((cx & COORDINATE_MASK) << (COORDINATE_BITS * 2)) | ((cy & COORDINATE_MASK) << COORDINATE_BITS) | (cz & COORDINATE_MASK);
+    }
+
+    /**
+     * An indexed value with its last position and its place in a bucket.
+     */
+    private static final class Entry<T> {
+        private final T value;
+        private double x;
+        private double y;
+        private double z;
+        private long cell;
+        private int slot;
+
+        private Entry(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Gets the squared distance from this entry to a point.
+         *
+         * @param px the point x coordinate
+         * @param py the point y coordinate
+         * @param pz the point z coordinate
+         * @return the squared distance
+         */
+        private double distanceSquared(double px, double py, double pz) {
+            double dx = x - px;
+            double dy = y - py;
+            double dz = z - pz;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /**
+     * Dense array of the entries in one cell, removed by swapping in the last entry.
+     */
+    private static final class Bucket<T> {
+        @SuppressWarnings("unchecked")
+        private Entry<T>[] entries = new Entry[4];
+        private int size;
+
+        /**
+         * Appends an entry.
+         *
+         * @param entry the entry to add
+         * @return the slot of the entry
+         */
+        private int add(Entry<T> entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size] = entry;
+            return size++;
+        }
+
+        /**
+         * Removes the entry at a slot.
+         *
+         * @param slot the slot to clear
+         * @return the remaining entry count
+         */
+        private int remove(int slot) {
+            size--;
+            if (slot != size) {
+                Entry<T> last = entries[size];
+                entries[slot] = last;
+                last.slot = slot;
+            }
+            entries[size] = null;
+            return size;
+        }
+    }
+
+    /**
+     * Open-addressing table from packed cell keys to buckets, probing linearly and kept at most
+     * half full. Removal shifts the following entries back, so no tombstones are left behind.
+     */
+    private static final class CellTable<T> {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private long[] keys;
+        private Bucket<T>[] values;
+        private int size;
+
+        private CellTable() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Gets the bucket of a cell.
+         *
+         * @param key the packed cell key
+         * @return the bucket, or null if the cell is empty
+         */
+        private Bucket<T> get(long key) {
+            int mask = values.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Adds the bucket of a cell that has none yet.
+         *
+         * @param key the packed cell key
+         * @param bucket the bucket
+         */
+        private void add(long key, Bucket<T> bucket) {
+            if ((size + 1) * 2 > values.length) {
+                resize(values.length * 2);
+            }
+            insert(key, bucket);
+            size++;
+        }
+
+        /**
+         * Removes the bucket of a cell, moving back the entries probed past it.
+         *
+         * @param key the packed cell key
+         */
+        private void remove(long key) {
+            int mask = values.length - 1;
+            int hole = slot(key, mask);
+            while (values[hole] != null && keys[hole] != key) {
+                hole = (hole + 1) & mask;
+            }
+            if (values[hole] == null) {
+                return;
+            }
+
+            for (int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (((i - slot(keys[i], mask)) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+            }
+            values[hole] = null;
+            size--;
+        }
+
+        /**
+         * Removes every bucket and shrinks the table back to its initial capacity.
+         */
+        private void clear() {
+            allocate(INITIAL_CAPACITY);
+            size = 0;
+        }
+
+        /**
+         * Stores a bucket in the first free slot of its probe sequence.
+         *
+         * @param key the packed cell key
+         * @param bucket the bucket
+         */
+        private void insert(long key, Bucket<T> bucket) {
+            int mask = values.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = bucket;
+        }
+
+        /**
+         * Rehashes every bucket into a table of a new capacity.
+         *
+         * @param capacity the new capacity, a power of two
+         */
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Bucket<T>[] oldValues = values;
+            allocate(capacity);
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        /**
+         * Replaces the arrays with empty ones.
+         *
+         * @param capacity the capacity, a power of two
+         */
+        @SuppressWarnings("unchecked")
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            values = new Bucket[capacity];
+        }
+
+        /**
+         * Gets the home slot of a key, mixing its bits so neighbouring cells spread out.
+         *
+         * @param key the packed cell key
+         * @param mask the table capacity minus one
+         * @return the home slot
+         */
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package carnage.cAbilityStones.utils;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiles text with legacy formatting codes (&amp;x) into Adventure components and memoizes the result.
+ * <p>
+ * Colours {@code 0-9a-f}, decorations {@code k-o} and reset {@code r} are supported. Compiled
+ * components are immutable and shared, and the cache evicts the least recently used entries
+ * once it reaches its size limit.
+ */
+public class TextCompiler {
+    private static final char CODE_PREFIX = '&';
+    private static final int DEFAULT_CACHE_SIZE = 512;
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+
+    private final Map<String, Component> cache;
+
+    public TextCompiler() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    public TextCompiler(int maxSize) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Component> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the compiled component for a text, parsing it only on the first request.
+     *
+     * @param text the text with legacy formatting codes
+     * @return the formatted Component
+     */
+    public synchronized Component compile(String text) {
+        if (text == null) {
+            return Component.empty();
+        }
+
+        Component component = cache.get(text);
+        if (component == null) {
+            component = parse(text);
+            cache.put(text, component);
+        }
+        return component;
+    }
+
+    /**
+     * Compiles a text without going through the cache. Meant for callers that keep their own
+     * table of compiled values, such as per-value cooldown texts, so those never evict the
+     * shared entries.
+     *
+     * @param text the text with legacy formatting codes
+     * @return the formatted Component
+     */
+    public Component compileUncached(String text) {
+        return text == null ? Component.empty() : parse(text);
+    }
+
+    /**
+     * Clears all compiled components.
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Parses legacy formatting codes in a single scan of the text.
+     *
+     * @param text the text with legacy formatting codes
+     * @return the formatted Component
+     */
+    private Component parse(String text) {
+        TextComponent.Builder result = Component.text();
+        StringBuilder segment = new StringBuilder();
+        Style.Builder style = Style.style().color(NamedTextColor.WHITE);
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c != CODE_PREFIX || i + 1 >= length || !isCode(text.charAt(i + 1))) {
+                segment.append(c);
+                continue;
+            }
+
+            if (!segment.isEmpty()) {
+                result.append(Component.text(segment.toString(), style.build()));
+                segment.setLength(0);
+            }
+            applyCode(style, Character.toLowerCase(text.charAt(++i)));
+        }
+
+        if (!segment.isEmpty()) {
+            result.append(Component.text(segment.toString(), style.build()));
+        }
+        return result.build();
+    }
+
+    /**
+     * Applies a formatting code to the style of the following text. Like the legacy format,
+     * colours and reset clear any active decorations.
+     *
+     * @param style the style being built
+     * @param code the lowercase formatting code
+     */
+    private void applyCode(Style.Builder style, char code) {
+        TextDecoration decoration = getDecorationFromCode(code);
+        if (decoration != null) {
+            style.decoration(decoration, TextDecoration.State.TRUE);
+            return;
+        }
+
+        for (TextDecoration active : DECORATIONS) {
+            style.decoration(active, TextDecoration.State.NOT_SET);
+        }
+        style.color(getColorFromCode(code));
+    }
+
+    /**
+     * Checks if a character is a supported formatting code.
+     *
+     * @param code the character following the prefix
+     * @return true if the character is a colour, decoration or reset code
+     */
+    private boolean isCode(char code) {
+        char lower = Character.toLowerCase(code);
+        return (lower >= '0' && lower <= '9') || (lower >= 'a' && lower <= 'f') || (lower >= 'k' && lower <= 'o') || lower == 'r';
+    }
+
+    /**
+     * Maps legacy decoration codes to TextDecoration.
+     *
+     * @param code the formatting code character
+     * @return the corresponding TextDecoration, or null if the code is not a decoration
+     */
+    private TextDecoration getDecorationFromCode(char code) {
+        return switch (code) {
+            case 'k' -> TextDecoration.OBFUSCATED;
+            case 'l' -> TextDecoration.BOLD;
+            case 'm' -> TextDecoration.STRIKETHROUGH;
+            case 'n' -> TextDecoration.UNDERLINED;
+            case 'o' -> TextDecoration.ITALIC;
+            default -> null;
+        };
+    }
+
+    /**
+     * Maps legacy color codes to NamedTextColor.
+     *
+     * @param code the color code character
+     * @return the corresponding NamedTextColor
+     */
+    private NamedTextColor getColorFromCode(char code) {
+        return switch (code) {
+            case '0' -> NamedTextColor.BLACK;
+            case '1' -> NamedTextColor.DARK_BLUE;
+            case '2' -> NamedTextColor.DARK_GREEN;
+            case '3' -> NamedTextColor.DARK_AQUA;
+            case '4' -> NamedTextColor.DARK_RED;
+            case '5' -> NamedTextColor.DARK_PURPLE;
+            case '6' -> NamedTextColor.GOLD;
+            case '7' -> NamedTextColor.GRAY;
+            case '8' -> NamedTextColor.DARK_GRAY;
+            case '9' -> NamedTextColor.BLUE;
+            case 'a' -> NamedTextColor.GREEN;
+            case 'b' -> NamedTextColor.AQUA;
+            case 'c' -> NamedTextColor.RED;
+            case 'd' -> NamedTextColor.LIGHT_PURPLE;
+            case 'e' -> NamedTextColor.YELLOW;
+            case 'f' -> NamedTextColor.WHITE;
+            default -> NamedTextColor.WHITE;
+        };
+    }
+}
@@ -0,0 +1,221 @@
+package carnage.cAbilityStones.storage;
+
+import carnage.cAbilityStones.models.StoneType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that cooldown changes reach another server over a loopback transport.
+ * <p>
+ * Two synced stores share one loopback network. Changes made on the source only reach the peer
+ * when the source is flushed, and are delivered before the flush returns.
+ */
+class SyncedCooldownStoreTest {
+    private static final long DURATION = TimeUnit.SECONDS.toMillis(10);
+    private static final UUID PLAYER = new UUID(0x5EED, 1);
+
+    private SyncedCooldownStore source;
+    private SyncedCooldownStore peer;
+
+    /**
+     * Connects two stores over a fresh network.
+     */
+    @BeforeEach
+    void setUp() {
+        LoopbackTransport.Network network = new LoopbackTransport.Network();
+        Logger logger = Logger.getLogger(getClass().getName());
+        source = new SyncedCooldownStore(new MemoryCooldownStore(), new LoopbackTransport(network), logger);
+        peer = new SyncedCooldownStore(new MemoryCooldownStore(), new LoopbackTransport(network), logger);
+        source.restore(PLAYER);
+    }
+
+    /**
+     * Closes both stores.
+     */
+    @AfterEach
+    void tearDown() {
+        source.close();
+        peer.close();
+    }
+
+    /**
+     * A cooldown started elsewhere is enforced for a player who is online here but has not used
+     * a stone yet.
+     */
+    @Test
+    void remoteChangeReachesOnlinePlayerWithoutTable() {
+        peer.restore(PLAYER);
+
+        assertEquals(0, source.tryAcquire(PLAYER, StoneType.FIRE, DURATION, source.now()));
+        source.flush();
+
+        assertRunning(peer, StoneType.FIRE);
+        assertTrue(peer.tryAcquire(PLAYER, StoneType.FIRE, DURATION, peer.now()) > 0);
+    }
+
+    /**
+     * A cooldown started elsewhere for a player who is offline here is held until they join.
+     */
+    @Test
+    void remoteChangeForOfflinePlayerAppliesOnJoin() {
+        source.set(PLAYER, StoneType.WATER, DURATION, source.now());
+        source.flush();
+        assertEquals(0, peer.getRemaining(PLAYER, StoneType.WATER, peer.now()));
+
+        peer.restore(PLAYER);
+
+        assertRunning(peer, StoneType.WATER);
+    }
+
+    /**
+     * A remote cooldown held for an offline player replaces an expired one left in their table
+     * when they join.
+     */
+    @Test
+    void remoteChangeReplacesExpiredCooldownOnJoin() {
+        peer.set(PLAYER, StoneType.FIRE, 0, peer.now());
+        source.set(PLAYER, StoneType.FIRE, DURATION, source.now());
+        source.flush();
+
+        peer.restore(PLAYER);
+
+        assertRunning(peer, StoneType.FIRE);
+    }
+
+    /**
+     * A remote change for an online player merges with the cooldowns they already hold.
+     */
+    @Test
+    void remoteChangeKeepsLocalCooldowns() {
+        peer.restore(PLAYER);
+        peer.set(PLAYER, StoneType.EARTH, DURATION, peer.now());
+
+        source.set(PLAYER, StoneType.AIR, DURATION, source.now());
+        source.flush();
+
+        assertRunning(peer, StoneType.EARTH);
+        assertRunning(peer, StoneType.AIR);
+    }
+
+    /**
+     * Of several changes to one stone between flushes, the latest is the one applied.
+     */
+    @Test
+    void latestChangeWinsWithinBatch() {
+        peer.restore(PLAYER);
+
+        source.set(PLAYER, StoneType.FIRE, DURATION, source.now());
+        source.clear(PLAYER, StoneType.FIRE);
+        source.flush();
+        assertEquals(0, peer.getRemaining(PLAYER, StoneType.FIRE, peer.now()));
+
+        source.set(PLAYER, StoneType.FIRE, DURATION, source.now());
+        source.clear(PLAYER, StoneType.FIRE);
+        source.set(PLAYER, StoneType.FIRE, DURATION, source.now());
+        source.flush();
+        assertRunning(peer, StoneType.FIRE);
+    }
+
+    /**
+     * Changes sent by later flushes replace those of earlier ones.
+     */
+    @Test
+    void laterFlushReplacesEarlierOne() {
+        peer.restore(PLAYER);
+
+        source.set(PLAYER, StoneType.LIGHTNING, DURATION * 6, source.now());
+        source.flush();
+        source.set(PLAYER, StoneType.LIGHTNING, DURATION, source.now());
+        source.flush();
+
+        long remaining = peer.getRemaining(PLAYER, StoneType.LIGHTNING, peer.now());
+        assertTrue(remaining > 0 && remaining <= DURATION + 1, "remaining " + remaining);
+    }
+
+    /**
+     * Clearing a cooldown clears it on the other servers too.
+     */
+    @Test
+    void clearPropagates() {
+        peer.restore(PLAYER);
+        source.set(PLAYER, StoneType.DARKNESS, DURATION, source.now());
+        source.flush();
+        assertRunning(peer, StoneType.DARKNESS);
+
+        assertTrue(source.clear(PLAYER, StoneType.DARKNESS));
+        source.flush();
+
+        assertEquals(0, peer.getRemaining(PLAYER, StoneType.DARKNESS, peer.now()));
+    }
+
+    /**
+     * Rolling back a failed cast clears the cooldown it started on the other servers too.
+     */
+    @Test
+    void rollbackPropagates() {
+        peer.restore(PLAYER);
+        long now = source.now();
+        assertEquals(0, source.tryAcquire(PLAYER, StoneType.FIRE, DURATION, now));
+        source.flush();
+        assertRunning(peer, StoneType.FIRE);
+
+        assertTrue(source.rollback(PLAYER, StoneType.FIRE, DURATION, now));
+        source.flush();
+
+        assertEquals(0, peer.getRemaining(PLAYER, StoneType.FIRE, peer.now()));
+        assertEquals(0, peer.tryAcquire(PLAYER, StoneType.FIRE, DURATION, peer.now()));
+    }
+
+    /**
+     * A rollback that no longer matches the running cooldown changes nothing anywhere.
+     */
+    @Test
+    void staleRollbackIsNotSent() {
+        peer.restore(PLAYER);
+        long now = source.now();
+        source.tryAcquire(PLAYER, StoneType.FIRE, DURATION, now);
+        source.set(PLAYER, StoneType.FIRE, DURATION * 2, source.now());
+        source.flush();
+
+        assertFalse(source.rollback(PLAYER, StoneType.FIRE, DURATION, now));
+        source.flush();
+
+        assertTrue(peer.getRemaining(PLAYER, StoneType.FIRE, peer.now()) > DURATION);
+    }
+
+    /**
+     * A remote cooldown survives the player leaving and joining again.
+     */
+    @Test
+    void remoteChangeSurvivesRejoin() {
+        peer.restore(PLAYER);
+        source.set(PLAYER, StoneType.EARTH, DURATION, source.now());
+        source.flush();
+
+        peer.archive(PLAYER);
+        assertEquals(0, peer.getRemaining(PLAYER, StoneType.EARTH, peer.now()));
+        peer.restore(PLAYER);
+
+        assertRunning(peer, StoneType.EARTH);
+    }
+
+    /**
+     * Asserts that a stone's cooldown is running on a store with about its full duration left.
+     *
+     * @param store the store to check
+     * @param type the stone type
+     */
+    private static void assertRunning(CooldownStore store, StoneType type) {
+        long remaining = store.getRemaining(PLAYER, type, store.now());
+        assertTrue(remaining > DURATION / 2 && remaining <= DURATION + 1, type + " remaining " + remaining);
+    }
+}